@@ -64,5 +64,5 @@ subprojects {
 }
 
 tasks.create<Jar>("buildAll") {
-    dependsOn(":integrations:core:jout", ":integrations:fabric:jout", ":integrations:paper:jout")
+    dependsOn(":integrations:core:jout", ":integrations:fabric:jout", ":integrations:paper:jout", ":integrations:processor:jout")
 }
\ No newline at end of file
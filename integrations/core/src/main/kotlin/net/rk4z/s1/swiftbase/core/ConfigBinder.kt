@@ -0,0 +1,348 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Constructor
+import java.lang.reflect.GenericArrayType
+import java.lang.reflect.Modifier
+import java.lang.reflect.ParameterizedType
+import java.lang.reflect.Type
+import java.lang.reflect.WildcardType
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.reflect.full.primaryConstructor
+import kotlin.reflect.jvm.javaConstructor
+
+/**
+ * Binds a config tree into an instance of a user-declared class.
+ *
+ * The plan for a class (which constructor or setters to call, how each property is named in the config,
+ * how each raw value is converted) is built once with [MethodHandle]s and then reused for every bind.
+ *
+ * Supported shapes:
+ * - Java records, through their canonical constructor.
+ * - Kotlin classes, through their primary constructor. Parameters with default values may be missing from the config.
+ * - Any other class with a no-arg constructor, through its non-static, non-transient fields.
+ *
+ * A property named `maxPlayers` is looked up as `maxPlayers`, `max-players` and `max_players`, in that order.
+ */
+@Suppress("UNCHECKED_CAST")
+internal class ConfigBinder<T : Any> private constructor(private val type: Class<T>) {
+    companion object {
+        private val binders = ConcurrentHashMap<Class<*>, ConfigBinder<*>>()
+        private val lookup = MethodHandles.lookup()
+
+        private const val DEFAULT_MARKER = "kotlin.jvm.internal.DefaultConstructorMarker"
+
+        fun <T : Any> of(type: Class<T>): ConfigBinder<T> {
+            binders[type]?.let { return it as ConfigBinder<T> }
+            val binder = ConfigBinder(type)
+            return (binders.putIfAbsent(type, binder) ?: binder) as ConfigBinder<T>
+        }
+
+        private fun zeroValue(type: Class<*>): Any? {
+            return when (type) {
+                Int::class.javaPrimitiveType -> 0
+                Long::class.javaPrimitiveType -> 0L
+                Double::class.javaPrimitiveType -> 0.0
+                Float::class.javaPrimitiveType -> 0f
+                Boolean::class.javaPrimitiveType -> false
+                Short::class.javaPrimitiveType -> 0.toShort()
+                Byte::class.javaPrimitiveType -> 0.toByte()
+                Char::class.javaPrimitiveType -> 0.toChar()
+                else -> null
+            }
+        }
+
+        private fun nameVariants(name: String): List<String> {
+            val kebab = name.replace(Regex("([a-z0-9])([A-Z])"), "$1-$2").lowercase()
+            return listOf(name, kebab, kebab.replace('-', '_')).distinct()
+        }
+
+        private fun rawClass(type: Type): Class<*> {
+            return when (type) {
+                is Class<*> -> type
+                is ParameterizedType -> type.rawType as Class<*>
+                is WildcardType -> rawClass(type.upperBounds.firstOrNull() ?: Any::class.java)
+                is GenericArrayType -> java.lang.reflect.Array.newInstance(rawClass(type.genericComponentType), 0).javaClass
+                else -> Any::class.java
+            }
+        }
+
+        private fun typeArgument(type: Type, index: Int): Type {
+            val arg = (type as? ParameterizedType)?.actualTypeArguments?.getOrNull(index) ?: return Any::class.java
+            return if (arg is WildcardType) arg.upperBounds.firstOrNull() ?: Any::class.java else arg
+        }
+
+        private fun isBindable(type: Class<*>): Boolean {
+            if (type.isPrimitive || type.isArray || type.isEnum || type.isInterface) return false
+            val name = type.name
+            return !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("kotlin.")
+        }
+
+        /**
+         * Builds the reader that converts a raw config value into a value of [type].
+         */
+        private fun readerFor(type: Type): (Any?, String) -> Any? {
+            val raw = rawClass(type)
+
+            // Containers are checked first so their elements go through their own readers (and get bound)
+            when {
+                raw.isArray -> {
+                    val component = if (type is GenericArrayType) type.genericComponentType else raw.componentType
+                    return arrayReader(readerFor(component), raw.componentType)
+                }
+                Set::class.java.isAssignableFrom(raw) -> return listReader(readerFor(typeArgument(type, 0)), true)
+                Collection::class.java.isAssignableFrom(raw) -> return listReader(readerFor(typeArgument(type, 0)), false)
+                Map::class.java.isAssignableFrom(raw) -> return mapReader(readerFor(typeArgument(type, 1)))
+            }
+
+            ConfigConverters.forTypeOrNull(raw.kotlin)?.let { converter ->
+                return { value, _ -> converter(value) }
+            }
+
+            return when {
+                // Nested binders are resolved lazily so self-referencing classes don't recurse forever
+                isBindable(raw) -> { value, path -> if (value == null) null else of(raw).bind(value, path) }
+
+                else -> { value, _ -> if (raw.isInstance(value)) value else null }
+            }
+        }
+
+        private fun listReader(element: (Any?, String) -> Any?, asSet: Boolean): (Any?, String) -> Any? {
+            return { value, path ->
+                val list = (value as? List<*>)?.mapIndexed { i, e -> element(e, "$path[$i]") }
+                if (asSet) list?.toSet() else list
+            }
+        }
+
+        private fun arrayReader(element: (Any?, String) -> Any?, componentType: Class<*>): (Any?, String) -> Any? {
+            return { value, path ->
+                (value as? List<*>)?.let { list ->
+                    val array = java.lang.reflect.Array.newInstance(componentType, list.size)
+                    list.forEachIndexed { i, e ->
+                        val converted = element(e, "$path[$i]")
+                        // Primitive arrays can't hold null, so unconvertible elements keep their zero value
+                        if (converted != null || !componentType.isPrimitive) java.lang.reflect.Array.set(array, i, converted)
+                    }
+                    array
+                }
+            }
+        }
+
+        private fun mapReader(element: (Any?, String) -> Any?): (Any?, String) -> Any? {
+            return { value, path ->
+                (value as? Map<*, *>)?.entries?.associate { (k, v) -> k.toString() to element(v, "$path.$k") }
+            }
+        }
+    }
+
+    private class Property(
+        val name: String,
+        val type: Class<*>,
+        val reader: (Any?, String) -> Any?,
+        val required: Boolean,
+    ) {
+        val names = nameVariants(name)
+
+        fun read(map: Map<*, *>, path: String): Any? {
+            for (candidate in names) {
+                if (map.containsKey(candidate)) {
+                    return reader(map[candidate], if (path.isEmpty()) candidate else "$path.$candidate")
+                }
+            }
+            return null
+        }
+    }
+
+    private val creator: (Map<*, *>, String) -> T = createPlan()
+
+    /**
+     * Binds a raw config value (normally a map) into a new instance.
+     *
+     * @param value The raw config value.
+     * @param path The path of [value] inside the config, used for error messages.
+     * @return The bound instance.
+     * @throws IllegalStateException If a required value is missing or has the wrong type.
+     */
+    fun bind(value: Any?, path: String = ""): T {
+        val map = value as? Map<*, *>
+            ?: throw IllegalStateException("Expected a section at '${path.ifEmpty { "<root>" }}' to bind ${type.simpleName}, but found ${value?.let { it::class.simpleName } ?: "nothing"}.")
+        return creator(map, path)
+    }
+
+    private fun createPlan(): (Map<*, *>, String) -> T {
+        return when {
+            type.isRecord -> recordPlan()
+            type.isAnnotationPresent(Metadata::class.java) && !type.kotlin.primaryConstructor?.parameters.isNullOrEmpty() -> kotlinPlan()
+            else -> fieldPlan()
+        }
+    }
+
+    private fun recordPlan(): (Map<*, *>, String) -> T {
+        val components = type.recordComponents
+        val constructor = type.getDeclaredConstructor(*components.map { it.type }.toTypedArray())
+        val properties = components.map {
+            Property(it.name, it.type, readerFor(it.genericType), it.type.isPrimitive)
+        }
+        return constructorPlan(constructor, properties, BooleanArray(properties.size), null)
+    }
+
+    private fun kotlinPlan(): (Map<*, *>, String) -> T {
+        val kConstructor = type.kotlin.primaryConstructor!!
+        val constructor = kConstructor.javaConstructor
+            ?: throw IllegalStateException("${type.simpleName} has no usable primary constructor.")
+        val genericTypes = constructor.genericParameterTypes
+        val parameters = kConstructor.parameters
+
+        val properties = parameters.mapIndexed { i, parameter ->
+            Property(
+                parameter.name ?: "arg$i",
+                constructor.parameterTypes[i],
+                readerFor(genericTypes[i]),
+                !parameter.type.isMarkedNullable && !parameter.isOptional,
+            )
+        }
+        val optional = BooleanArray(parameters.size) { parameters[it].isOptional }
+
+        // Kotlin compiles default values into a synthetic constructor taking a bitmask of the missing arguments
+        val defaults = if (optional.any { it }) {
+            val maskCount = (parameters.size + 31) / 32
+            type.declaredConstructors.firstOrNull { candidate ->
+                val types = candidate.parameterTypes
+                types.size == parameters.size + maskCount + 1 &&
+                    types.last().name == DEFAULT_MARKER &&
+                    types.take(parameters.size) == constructor.parameterTypes.toList()
+            }
+        } else {
+            null
+        }
+
+        return constructorPlan(constructor, properties, optional, defaults)
+    }
+
+    private fun constructorPlan(
+        constructor: Constructor<*>,
+        properties: List<Property>,
+        optional: BooleanArray,
+        defaultsConstructor: Constructor<*>?,
+    ): (Map<*, *>, String) -> T {
+        val handle = spread(constructor)
+        val defaultsHandle = defaultsConstructor?.let { spread(it) }
+        val size = properties.size
+        val maskCount = (size + 31) / 32
+
+        return { map, path ->
+            val args = arrayOfNulls<Any>(size)
+            var masks: IntArray? = null
+
+            for (i in 0 until size) {
+                val property = properties[i]
+                val value = property.read(map, path)
+
+                if (value != null) {
+                    args[i] = value
+                } else if (optional[i] && defaultsHandle != null) {
+                    if (masks == null) masks = IntArray(maskCount)
+                    masks[i / 32] = masks[i / 32] or (1 shl (i % 32))
+                    args[i] = zeroValue(property.type)
+                } else if (property.required) {
+                    throw missing(path, property)
+                }
+            }
+
+            if (masks == null) {
+                handle.invoke(args) as T
+            } else {
+                val fullArgs = arrayOfNulls<Any>(size + maskCount + 1)
+                System.arraycopy(args, 0, fullArgs, 0, size)
+                for (m in 0 until maskCount) fullArgs[size + m] = masks[m]
+                defaultsHandle!!.invoke(fullArgs) as T
+            }
+        }
+    }
+
+    private fun fieldPlan(): (Map<*, *>, String) -> T {
+        val constructor = try {
+            type.getDeclaredConstructor()
+        } catch (e: NoSuchMethodException) {
+            throw IllegalStateException("${type.simpleName} can't be bound: it needs a primary constructor, a canonical record constructor or a no-arg constructor.")
+        }
+        constructor.trySetAccessible()
+        val create = lookup.unreflectConstructor(constructor)
+            .asType(MethodType.methodType(Any::class.java))
+
+        val setters = type.declaredFields
+            .filter { !Modifier.isStatic(it.modifiers) && !Modifier.isTransient(it.modifiers) && !it.isSynthetic }
+            .map { field ->
+                field.trySetAccessible()
+                val setter = lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(Void.TYPE, Any::class.java, Any::class.java))
+                Property(field.name, field.type, readerFor(field.genericType), field.type.isPrimitive) to setter
+            }
+
+        return { map, path ->
+            val instance = create.invoke() as T
+            for ((property, setter) in setters) {
+                val value = property.read(map, path)
+                if (value != null) {
+                    setter.invoke(instance as Any, value)
+                } else if (property.required && property.names.any { map.containsKey(it) }) {
+                    throw missing(path, property)
+                }
+            }
+            instance
+        }
+    }
+
+    private fun spread(constructor: Constructor<*>): MethodHandle {
+        constructor.trySetAccessible()
+        return lookup.unreflectConstructor(constructor)
+            .asSpreader(Array<Any?>::class.java, constructor.parameterCount)
+            .asType(MethodType.methodType(Any::class.java, Array<Any?>::class.java))
+    }
+
+    private fun missing(path: String, property: Property): IllegalStateException {
+        val key = if (path.isEmpty()) property.name else "$path.${property.name}"
+        return IllegalStateException("Failed to bind ${type.simpleName}: '$key' is missing or has an unexpected type.")
+    }
+}
+
+/**
+ * A config section bound into an instance of [type].
+ *
+ * The instance is rebuilt whenever the config is reloaded, so reading [value] is a plain field access
+ * that always reflects the current config.
+ *
+ * @property type The bound class.
+ * @property path The dotted path of the bound section, or an empty string for the whole config.
+ */
+class ConfigBinding<T : Any> internal constructor(
+    val type: Class<T>,
+    val path: String,
+    private val binder: ConfigBinder<T>,
+) {
+    @Volatile
+    private var current: T? = null
+
+    /**
+     * The bound instance for the current config.
+     */
+    val value: T
+        get() = current ?: throw IllegalStateException("Config binding for ${type.simpleName} has not been bound yet.")
+
+    fun get(): T = value
+
+    internal fun bind(snapshot: ConfigSnapshot) {
+        val section = if (path.isEmpty()) snapshot.root else snapshot.resolve(path)
+        current = binder.bind(section, path)
+    }
+
+    internal fun rebind(snapshot: ConfigSnapshot) {
+        try {
+            bind(snapshot)
+        } catch (e: Exception) {
+            Logger.error("Failed to rebind config to ${type.simpleName}, keeping the previous values: ${e.message}")
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.time.Duration
+import java.util.UUID
+import java.util.regex.Pattern
+
+/**
+ * Decodes a raw config value (usually a string) into a richer type, like a [Duration] or a compiled [Pattern].
+ *
+ * Decoding happens at most once per config generation for every key it is used with:
+ * [Core.lc] caches the result in the current [ConfigSnapshot] and [ConfigKey] caches it in the handle,
+ * so reading the value again until the next reload returns the same decoded object.
+ *
+ * ```kotlin
+ * CB.registerConfigCodec(Color::class.java) { value -> Color.decode(value.toString()) }
+ * val color = CB.lc<Color>("display.color")
+ * ```
+ *
+ * @see Core.registerConfigCodec
+ */
+fun interface ConfigCodec<T : Any> {
+    /**
+     * Decodes a raw config value.
+     *
+     * @param value The raw value. Never null.
+     * @return The decoded value.
+     * @throws IllegalArgumentException If the value can't be decoded. Reads of it then return null.
+     */
+    fun decode(value: Any): T
+
+    companion object {
+        /**
+         * Decodes durations written as a sequence of amounts and units, like `5m30s`, `1h`, `500ms` or `20t`.
+         * The units are `d`, `h`, `m`, `s`, `ms` and `t` (game ticks, 50 ms each).
+         * ISO-8601 durations like `PT5M` and plain numbers (read as seconds) are accepted too.
+         */
+        @JvmField
+        val DURATION = ConfigCodec { value ->
+            if (value is Number) return@ConfigCodec Duration.ofMillis((value.toDouble() * 1000).toLong())
+            parseDuration(value.toString().trim())
+        }
+
+        @JvmField
+        val PATTERN = ConfigCodec { value -> Pattern.compile(value.toString()) }
+
+        @JvmField
+        val UUID_CODEC = ConfigCodec { value -> UUID.fromString(value.toString().trim()) }
+
+        /**
+         * Accepts both the short form and the standard UUID form.
+         */
+        @JvmField
+        val SHORT_UUID = ConfigCodec { value ->
+            val text = value.toString().trim()
+            if (ShortUUID.isValidShortString(text)) ShortUUID.fromShortString(text) else ShortUUID.fromUUID(text)
+        }
+
+        /**
+         * Creates a codec for an enum that matches constant names ignoring case, with `-` and spaces read as `_`.
+         */
+        @JvmStatic
+        fun <E : Enum<E>> forEnum(type: Class<E>): ConfigCodec<E> {
+            val byName = type.enumConstants.associateBy { normalizeEnumName(it.name) }
+            return ConfigCodec { value ->
+                byName[normalizeEnumName(value.toString())]
+                    ?: throw IllegalArgumentException("'$value' is not one of ${byName.keys}")
+            }
+        }
+
+        private fun normalizeEnumName(name: String): String {
+            return name.trim().uppercase().replace('-', '_').replace(' ', '_')
+        }
+
+        private fun parseDuration(text: String): Duration {
+            if (text.startsWith("P", ignoreCase = true)) return Duration.parse(text)
+            text.toDoubleOrNull()?.let { return Duration.ofMillis((it * 1000).toLong()) }
+            require(text.isNotEmpty()) { "Empty duration" }
+
+            var total = Duration.ZERO
+            var i = 0
+            while (i < text.length) {
+                val start = i
+                while (i < text.length && (text[i].isDigit() || text[i] == '.')) i++
+                val amount = text.substring(start, i).toDoubleOrNull()
+                    ?: throw IllegalArgumentException("Invalid duration '$text': expected a number at position $start")
+
+                val unitStart = i
+                while (i < text.length && text[i].isLetter()) i++
+                val millis = when (text.substring(unitStart, i).lowercase()) {
+                    "d" -> 86_400_000.0
+                    "h" -> 3_600_000.0
+                    "m" -> 60_000.0
+                    "s" -> 1_000.0
+                    "ms" -> 1.0
+                    "t" -> 50.0
+                    else -> throw IllegalArgumentException("Invalid duration '$text': unknown unit at position $unitStart")
+                }
+                total = total.plusMillis((amount * millis).toLong())
+                while (i < text.length && text[i].isWhitespace()) i++
+            }
+            return total
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * A set of Ints stored in a primitive open-addressing table.
+ * [contains] neither boxes nor allocates.
+ */
+class ConfigIntSet internal constructor(values: Collection<Int>) {
+    private val table: IntArray
+    private val used: BooleanArray
+    private val mask: Int
+
+    /**
+     * The number of distinct values in the set.
+     */
+    val size: Int
+
+    init {
+        var capacity = 4
+        while (capacity < values.size * 2) capacity = capacity shl 1
+        table = IntArray(capacity)
+        used = BooleanArray(capacity)
+        mask = capacity - 1
+
+        var count = 0
+        for (value in values) {
+            var slot = mix(value) and mask
+            while (used[slot] && table[slot] != value) slot = (slot + 1) and mask
+            if (!used[slot]) {
+                used[slot] = true
+                table[slot] = value
+                count++
+            }
+        }
+        size = count
+    }
+
+    fun contains(value: Int): Boolean {
+        var slot = mix(value) and mask
+        while (used[slot]) {
+            if (table[slot] == value) return true
+            slot = (slot + 1) and mask
+        }
+        return false
+    }
+
+    fun isEmpty(): Boolean = size == 0
+
+    private fun mix(value: Int): Int {
+        val h = value * -0x61c88647
+        return h xor (h ushr 16)
+    }
+}
+
+/**
+ * A prefix tree over a list of strings, for checks like "does this message contain a blocked word"
+ * or "does this item id start with one of these namespaces" without walking the whole list.
+ *
+ * @property ignoreCase Whether entries and checked text are compared case-insensitively.
+ */
+class ConfigPrefixIndex internal constructor(values: Collection<String>, val ignoreCase: Boolean) {
+    private class Node {
+        var children: HashMap<Char, Node>? = null
+        var terminal = false
+    }
+
+    private val root = Node()
+
+    /**
+     * The number of entries in the index.
+     */
+    val size: Int = values.size
+
+    init {
+        for (value in values) {
+            var node = root
+            for (c in value) {
+                val children = node.children ?: HashMap<Char, Node>().also { node.children = it }
+                node = children.getOrPut(normalize(c)) { Node() }
+            }
+            node.terminal = true
+        }
+    }
+
+    /**
+     * Whether [text] is exactly one of the entries.
+     */
+    fun contains(text: String): Boolean {
+        val node = walk(text, 0, exact = true) ?: return false
+        return node.terminal
+    }
+
+    /**
+     * Whether [text] starts with one of the entries.
+     */
+    fun startsWithAny(text: CharSequence): Boolean {
+        return walk(text, 0, exact = false) != null
+    }
+
+    /**
+     * Whether one of the entries appears anywhere in [text].
+     */
+    fun containsAnyIn(text: CharSequence): Boolean {
+        for (start in text.indices) {
+            if (walk(text, start, exact = false) != null) return true
+        }
+        return false
+    }
+
+    /**
+     * Walks the tree along [text] from [start].
+     * Without [exact], returns the first terminal node reached; with it, the node reached at the end of [text].
+     */
+    private fun walk(text: CharSequence, start: Int, exact: Boolean): Node? {
+        var node = root
+        if (!exact && node.terminal) return node
+
+        for (i in start until text.length) {
+            node = node.children?.get(normalize(text[i])) ?: return null
+            if (!exact && node.terminal) return node
+        }
+        return if (exact) node else null
+    }
+
+    private fun normalize(c: Char): Char = if (ignoreCase) c.lowercaseChar() else c
+}
@@ -0,0 +1,115 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.time.Duration
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.regex.Pattern
+import kotlin.reflect.KClass
+
+/**
+ * Converts raw config values (as produced by the YAML parser) into the type a caller asks for.
+ *
+ * The converter for a type is looked up once and can then be reused for every read,
+ * which is what [ConfigKey] does. Values that already have the requested type are returned as-is,
+ * everything else goes through the same string conversion [Core.parseValue] has always used.
+ *
+ * Types with a registered [ConfigCodec] (and every enum) are decoded by their codec instead.
+ */
+@Suppress("UNCHECKED_CAST")
+object ConfigConverters {
+    private val converters: Map<KClass<*>, (Any?) -> Any?> = mapOf(
+        String::class to { value -> value as? String },
+        Int::class to { value -> value as? Int ?: value?.toString()?.toIntOrNull() },
+        Boolean::class to { value -> value as? Boolean ?: value?.toString()?.toBooleanOrNull() },
+        Double::class to { value -> value as? Double ?: value?.toString()?.toDoubleOrNull() },
+        Short::class to { value -> value as? Short ?: value?.toString()?.toShortOrNull() },
+        Long::class to { value -> value as? Long ?: value?.toString()?.toLongOrNull() },
+        Float::class to { value -> value as? Float ?: value?.toString()?.toFloatOrNull() },
+
+        // There is a special type! :D
+        Byte::class to { value -> value as? Byte ?: value?.toString()?.toByteOrNull() },
+        Char::class to { value -> (value as? String)?.singleOrNull() },
+        List::class to { value -> value as? List<*> },
+        Array::class to { value -> (value as? List<*>)?.toTypedArray() },
+        Map::class to { value -> value as? Map<*, *> },
+        BigInteger::class to { value -> value as? BigInteger ?: value?.toString()?.let { BigInteger(it) } },
+        BigDecimal::class to { value -> value as? BigDecimal ?: value?.toString()?.let { BigDecimal(it) } },
+    )
+
+    private val codecs = ConcurrentHashMap<KClass<*>, ConfigCodec<*>>().apply {
+        put(Duration::class, ConfigCodec.DURATION)
+        put(Pattern::class, ConfigCodec.PATTERN)
+        put(UUID::class, ConfigCodec.UUID_CODEC)
+        put(ShortUUID::class, ConfigCodec.SHORT_UUID)
+    }
+
+    private val codecConverters = ConcurrentHashMap<KClass<*>, (Any?) -> Any?>()
+
+    /**
+     * Registers the codec used to decode values of the given type, replacing any previous one.
+     * Register codecs before the values are first read; values decoded earlier are kept until the next reload.
+     *
+     * @param type The decoded type.
+     * @param codec The codec.
+     */
+    @JvmStatic
+    fun <T : Any> register(type: KClass<T>, codec: ConfigCodec<T>) {
+        codecs[type] = codec
+        codecConverters.remove(type)
+    }
+
+    /**
+     * Whether values of the given type are decoded by a [ConfigCodec].
+     */
+    @JvmStatic
+    fun isDecoded(type: KClass<*>): Boolean = codecs.containsKey(type) || type.java.isEnum
+
+    /**
+     * Gets the converter for the given type.
+     * Types without a dedicated converter or codec are only returned when the raw value is already an instance of it.
+     *
+     * @param type The type to convert to.
+     * @return A function converting a raw config value to [type], or null if it can't be converted.
+     */
+    @JvmStatic
+    fun <T : Any> forType(type: KClass<T>): (Any?) -> T? {
+        return forTypeOrNull(type) ?: { value -> if (type.isInstance(value)) value as T else null }
+    }
+
+    /**
+     * Gets the dedicated converter or codec for the given type, or null if there is none.
+     */
+    internal fun <T : Any> forTypeOrNull(type: KClass<T>): ((Any?) -> T?)? {
+        converters[type]?.let { return it as (Any?) -> T? }
+        if (!isDecoded(type)) return null
+        return codecConverters.computeIfAbsent(type) { fromCodec(type) } as (Any?) -> T?
+    }
+
+    private fun fromCodec(type: KClass<*>): (Any?) -> Any? {
+        val codec = codecs[type] ?: ConfigCodec.forEnum(type.java as Class<out Enum<*>>)
+
+        return { value ->
+            when {
+                value == null -> null
+                type.isInstance(value) -> value
+                else -> try {
+                    codec.decode(value)
+                } catch (e: RuntimeException) {
+                    Logger.logIfDebug("Could not decode '$value' as ${type.simpleName}: ${e.message}", LogLevel.WARN)
+                    null
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a single raw value.
+     * Prefer [forType] when the same type is converted repeatedly.
+     */
+    @JvmStatic
+    fun <T : Any> convert(value: Any?, type: KClass<T>): T? {
+        return forType(type)(value)
+    }
+}
@@ -0,0 +1,96 @@
+package net.rk4z.s1.swiftbase.core
+
+import org.yaml.snakeyaml.Yaml
+
+/**
+ * Config overrides taken from environment variables and system properties.
+ *
+ * Both are read exactly once, when the override layer is created, and their values are parsed as YAML scalars
+ * (so `"5"` becomes an Int and `"[a, b]"` a list). Applying the layer to a tree never touches the environment again.
+ *
+ * - The environment variable `SWIFTBASE_MAIN_EXAMPLE` overrides `main.example`. Because underscores are ambiguous,
+ *   the name is matched against the keys that exist in the config (and the declared schema keys) first;
+ *   `MAIN_MAX_PLAYERS` matches `main.max-players` or `main.max_players` if such a key exists,
+ *   otherwise every underscore is read as a dot.
+ * - The system property `swiftbase.main.example` overrides `main.example` as-is.
+ *
+ * System properties are applied after environment variables, so they win when both set the same key.
+ */
+internal class ConfigEnvironment private constructor(
+    private val variables: Map<String, Any?>,
+    private val properties: Map<String, Any?>,
+    private val propertyPrefix: String,
+) {
+    companion object {
+        /**
+         * Captures every environment variable and system property that starts with [prefix].
+         *
+         * @param prefix The prefix, like `SWIFTBASE`. Environment variables use it in upper case followed by `_`,
+         * system properties in lower case followed by `.`.
+         */
+        fun capture(
+            prefix: String,
+            environment: Map<String, String> = System.getenv(),
+            systemProperties: Map<Any, Any> = System.getProperties(),
+        ): ConfigEnvironment {
+            val yaml = Yaml()
+            val envPrefix = prefix.uppercase() + "_"
+            val propertyPrefix = prefix.lowercase() + "."
+
+            val variables = environment
+                .filterKeys { it.length > envPrefix.length && it.startsWith(envPrefix) }
+                .entries.associate { (name, value) -> name.removePrefix(envPrefix) to parse(yaml, value) }
+            val properties = systemProperties.entries
+                .filter { (name, _) -> name is String && name.length > propertyPrefix.length && name.startsWith(propertyPrefix) }
+                .associate { (name, value) -> (name as String).removePrefix(propertyPrefix) to parse(yaml, value.toString()) }
+
+            return ConfigEnvironment(variables, properties, propertyPrefix)
+        }
+
+        private fun parse(yaml: Yaml, value: String): Any? {
+            return try {
+                yaml.load<Any?>(value) ?: value
+            } catch (_: Exception) {
+                value
+            }
+        }
+
+        private fun normalize(path: String): String {
+            return path.uppercase().replace('.', '_').replace('-', '_')
+        }
+
+        private fun collectLeafPaths(map: Map<*, *>, prefix: String, out: MutableList<String>) {
+            for ((key, value) in map) {
+                val path = if (prefix.isEmpty()) key.toString() else "$prefix.$key"
+                if (value is Map<*, *> && value.isNotEmpty()) collectLeafPaths(value, path, out) else out.add(path)
+            }
+        }
+    }
+
+    fun isEmpty(): Boolean = variables.isEmpty() && properties.isEmpty()
+
+    /**
+     * Applies the overrides to a tree.
+     *
+     * @param tree The merged config tree.
+     * @param knownKeys Additional keys environment variable names may resolve to.
+     */
+    fun applyTo(tree: MutableMap<String, Any?>, knownKeys: Collection<String> = emptyList()) {
+        if (variables.isNotEmpty()) {
+            val paths = mutableListOf<String>()
+            collectLeafPaths(tree, "", paths)
+            val byName = (paths + knownKeys).associateBy { normalize(it) }
+
+            for ((name, value) in variables) {
+                val key = byName[name] ?: name.lowercase().replace('_', '.')
+                ConfigTrees.set(tree, key, value)
+                Logger.logIfDebug("Config key '$key' overridden by environment variable '$name'")
+            }
+        }
+
+        for ((key, value) in properties) {
+            ConfigTrees.set(tree, key, value)
+            Logger.logIfDebug("Config key '$key' overridden by system property '$propertyPrefix$key'")
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package net.rk4z.s1.swiftbase.core
+
+import org.yaml.snakeyaml.DumperOptions
+import org.yaml.snakeyaml.Yaml
+import java.io.File
+import java.io.InputStreamReader
+import java.math.BigInteger
+import java.nio.charset.StandardCharsets
+import java.util.Properties
+
+/**
+ * A file format config files can be written in. The format of a file is chosen by its extension.
+ *
+ * Every format produces the same kind of tree (nested maps, lists and scalars), so the rest of the config system
+ * doesn't care which format a value came from. YAML is the most flexible; JSON and `.properties` are meant for large,
+ * generated files, which they load several times faster.
+ *
+ * @property extensions The file extensions of this format, in lower case.
+ */
+enum class ConfigFormat(val extensions: Set<String>) {
+    YAML(setOf("yml", "yaml")) {
+        override fun parse(bytes: ByteArray): Map<String, Any?> {
+            // Each load gets its own Yaml instance because Yaml is not thread-safe
+            return InputStreamReader(bytes.inputStream(), StandardCharsets.UTF_8).use { reader ->
+                Yaml().load<Map<String, Any?>>(reader)
+            } ?: emptyMap()
+        }
+
+        override fun write(tree: Map<String, Any?>): ByteArray {
+            val options = DumperOptions().apply {
+                defaultFlowStyle = DumperOptions.FlowStyle.BLOCK
+                isPrettyFlow = true
+            }
+            return Yaml(options).dump(tree).toByteArray(StandardCharsets.UTF_8)
+        }
+    },
+
+    /**
+     * JSON, read by a single-pass parser that builds the tree directly from the text without a token stream.
+     * Objects keep the order of their keys, so writing the tree back keeps the layout of the file.
+     * Whole numbers become Int, Long or BigInteger depending on their size and decimals become Double, like in YAML.
+     */
+    JSON(setOf("json")) {
+        override fun parse(bytes: ByteArray): Map<String, Any?> {
+            val text = String(bytes, StandardCharsets.UTF_8)
+            if (text.isBlank()) return emptyMap()
+
+            val value = JsonReader(text).readDocument()
+            @Suppress("UNCHECKED_CAST")
+            return value as? Map<String, Any?> ?: throw IllegalArgumentException("The root of a JSON config must be an object")
+        }
+
+        override fun write(tree: Map<String, Any?>): ByteArray {
+            val out = StringBuilder()
+            writeJson(out, tree, 0)
+            return out.append('\n').toString().toByteArray(StandardCharsets.UTF_8)
+        }
+    },
+
+    /**
+     * Flat `key=value` files. Dotted keys are turned into sections and every value is read as a string
+     * (the typed getters convert it as needed). Lists can't be represented.
+     */
+    PROPERTIES(setOf("properties")) {
+        override fun parse(bytes: ByteArray): Map<String, Any?> {
+            val properties = Properties()
+            InputStreamReader(bytes.inputStream(), StandardCharsets.UTF_8).use { properties.load(it) }
+
+            val tree = LinkedHashMap<String, Any?>()
+            // Sorted so a value and a section with the same name resolve the same way every time
+            properties.stringPropertyNames().sorted().forEach { key -> ConfigTrees.set(tree, key, properties.getProperty(key)) }
+            return tree
+        }
+
+        override fun write(tree: Map<String, Any?>): ByteArray {
+            val out = StringBuilder()
+            writeProperties(out, tree, "")
+            return out.toString().toByteArray(StandardCharsets.UTF_8)
+        }
+    };
+
+    /**
+     * Parses a file's content into a config tree.
+     *
+     * @throws IllegalArgumentException If the content is not valid in this format.
+     */
+    abstract fun parse(bytes: ByteArray): Map<String, Any?>
+
+    /**
+     * Serializes a config tree.
+     */
+    abstract fun write(tree: Map<String, Any?>): ByteArray
+
+    companion object {
+        /**
+         * Every extension a config file can have.
+         */
+        @JvmField
+        val EXTENSIONS: Set<String> = entries.flatMapTo(HashSet()) { it.extensions }
+
+        /**
+         * Gets the format of a file by its extension.
+         *
+         * @return The format, or null if the extension is not supported.
+         */
+        @JvmStatic
+        fun forExtension(extension: String): ConfigFormat? {
+            val lower = extension.lowercase()
+            return entries.firstOrNull { lower in it.extensions }
+        }
+
+        /**
+         * Gets the format of a file, defaulting to YAML for unknown extensions.
+         */
+        @JvmStatic
+        fun forFile(file: File): ConfigFormat = forExtension(file.extension) ?: YAML
+
+        private fun writeJson(out: StringBuilder, value: Any?, indent: Int) {
+            when (value) {
+                null -> out.append("null")
+                is Boolean, is Int, is Long, is Short, is Byte, is BigInteger -> out.append(value)
+                is Number -> {
+                    val d = value.toDouble()
+                    if (d.isNaN() || d.isInfinite()) writeJsonString(out, value.toString()) else out.append(value)
+                }
+                is Map<*, *> -> {
+                    if (value.isEmpty()) {
+                        out.append("{}")
+                        return
+                    }
+                    out.append("{\n")
+                    value.entries.forEachIndexed { i, (k, v) ->
+                        repeat(indent + 1) { out.append("  ") }
+                        writeJsonString(out, k.toString())
+                        out.append(": ")
+                        writeJson(out, v, indent + 1)
+                        out.append(if (i < value.size - 1) ",\n" else "\n")
+                    }
+                    repeat(indent) { out.append("  ") }
+                    out.append('}')
+                }
+                is Collection<*> -> {
+                    out.append('[')
+                    value.forEachIndexed { i, v ->
+                        if (i > 0) out.append(", ")
+                        writeJson(out, v, indent)
+                    }
+                    out.append(']')
+                }
+                else -> writeJsonString(out, value.toString())
+            }
+        }
+
+        private fun writeJsonString(out: StringBuilder, value: String) {
+            out.append('"')
+            for (c in value) {
+                when (c) {
+                    '"' -> out.append("\\\"")
+                    '\\' -> out.append("\\\\")
+                    '\n' -> out.append("\\n")
+                    '\r' -> out.append("\\r")
+                    '\t' -> out.append("\\t")
+                    else -> if (c < ' ') out.append(String.format("\\u%04x", c.code)) else out.append(c)
+                }
+            }
+            out.append('"')
+        }
+
+        private fun writeProperties(out: StringBuilder, tree: Map<*, *>, prefix: String) {
+            for ((key, value) in tree) {
+                val path = if (prefix.isEmpty()) key.toString() else "$prefix.$key"
+                if (value is Map<*, *>) {
+                    writeProperties(out, value, path)
+                } else if (value != null) {
+                    escapeProperty(out, path, true)
+                    out.append('=')
+                    escapeProperty(out, value.toString(), false)
+                    out.append('\n')
+                }
+            }
+        }
+
+        private fun escapeProperty(out: StringBuilder, text: String, isKey: Boolean) {
+            text.forEachIndexed { i, c ->
+                when {
+                    c == '\\' -> out.append("\\\\")
+                    c == '\n' -> out.append("\\n")
+                    c == '\r' -> out.append("\\r")
+                    c == '\t' -> out.append("\\t")
+                    c == ' ' && (isKey || i == 0) -> out.append("\\ ")
+                    (c == '=' || c == ':') && isKey -> out.append('\\').append(c)
+                    (c == '#' || c == '!') && i == 0 -> out.append('\\').append(c)
+                    else -> out.append(c)
+                }
+            }
+        }
+    }
+
+    private class JsonReader(private val text: String) {
+        private var i = 0
+
+        fun readDocument(): Any? {
+            val value = readValue()
+            skipWhitespace()
+            if (i < text.length) fail("unexpected '${text[i]}' after the end of the document")
+            return value
+        }
+
+        private fun readValue(): Any? {
+            skipWhitespace()
+            if (i >= text.length) fail("unexpected end of the document")
+
+            return when (val c = text[i]) {
+                '{' -> readObject()
+                '[' -> readArray()
+                '"' -> readString()
+                't' -> readLiteral("true", true)
+                'f' -> readLiteral("false", false)
+                'n' -> readLiteral("null", null)
+                else -> if (c == '-' || c in '0'..'9') readNumber() else fail("unexpected '$c'")
+            }
+        }
+
+        private fun readObject(): Map<String, Any?> {
+            val map = LinkedHashMap<String, Any?>()
+            i++
+            skipWhitespace()
+            if (peek() == '}') {
+                i++
+                return map
+            }
+
+            while (true) {
+                skipWhitespace()
+                if (peek() != '"') fail("expected a key")
+                val key = readString()
+                skipWhitespace()
+                expect(':')
+                map[key] = readValue()
+                skipWhitespace()
+                when (peek()) {
+                    ',' -> i++
+                    '}' -> {
+                        i++
+                        return map
+                    }
+                    else -> fail("expected ',' or '}'")
+                }
+            }
+        }
+
+        private fun readArray(): List<Any?> {
+            val list = ArrayList<Any?>()
+            i++
+            skipWhitespace()
+            if (peek() == ']') {
+                i++
+                return list
+            }
+
+            while (true) {
+                list.add(readValue())
+                skipWhitespace()
+                when (peek()) {
+                    ',' -> i++
+                    ']' -> {
+                        i++
+                        return list
+                    }
+                    else -> fail("expected ',' or ']'")
+                }
+            }
+        }
+
+        private fun readString(): String {
+            i++
+            val start = i
+            // Strings without escapes are taken as a single substring
+            while (i < text.length) {
+                val c = text[i]
+                if (c == '"') return text.substring(start, i++)
+                if (c == '\\' || c < ' ') break
+                i++
+            }
+
+            val out = StringBuilder().append(text, start, i)
+            while (i < text.length) {
+                val c = text[i++]
+                when (c) {
+                    '"' -> return out.toString()
+                    '\\' -> {
+                        if (i >= text.length) break
+                        when (val e = text[i++]) {
+                            '"', '\\', '/' -> out.append(e)
+                            'b' -> out.append('\b')
+                            'f' -> out.append('\u000C')
+                            'n' -> out.append('\n')
+                            'r' -> out.append('\r')
+                            't' -> out.append('\t')
+                            'u' -> {
+                                if (i + 4 > text.length) fail("invalid unicode escape")
+                                out.append(text.substring(i, i + 4).toIntOrNull(16)?.toChar() ?: fail("invalid unicode escape"))
+                                i += 4
+                            }
+                            else -> fail("invalid escape '\\$e'")
+                        }
+                    }
+                    else -> {
+                        if (c < ' ') {
+                            i--
+                            fail("control character U+%04X in a string".format(c.code))
+                        }
+                        out.append(c)
+                    }
+                }
+            }
+            fail("unterminated string")
+        }
+
+        private fun readNumber(): Any {
+            val start = i
+            var decimal = false
+            if (peek() == '-') i++
+            when (peek()) {
+                '0' -> {
+                    i++
+                    if (peek()?.isDigit() == true) fail("leading zeros are not allowed")
+                }
+                in '1'..'9' -> skipDigits()
+                else -> fail("expected a digit")
+            }
+            if (peek() == '.') {
+                decimal = true
+                i++
+                if (skipDigits() == 0) fail("expected a digit after '.'")
+            }
+            if (peek() == 'e' || peek() == 'E') {
+                decimal = true
+                i++
+                if (peek() == '+' || peek() == '-') i++
+                if (skipDigits() == 0) fail("expected a digit in the exponent")
+            }
+
+            val number = text.substring(start, i)
+            if (decimal) return number.toDoubleOrNull() ?: fail("invalid number '$number'")
+            return number.toIntOrNull() ?: number.toLongOrNull() ?: number.toBigIntegerOrNull() ?: fail("invalid number '$number'")
+        }
+
+        private fun readLiteral(literal: String, value: Any?): Any? {
+            if (!text.startsWith(literal, i)) fail("unexpected '${text[i]}'")
+            i += literal.length
+            return value
+        }
+
+        private fun skipDigits(): Int {
+            val start = i
+            while (i < text.length && text[i] in '0'..'9') i++
+            return i - start
+        }
+
+        private fun skipWhitespace() {
+            while (i < text.length && text[i].isWhitespace()) i++
+        }
+
+        private fun peek(): Char? = text.getOrNull(i)
+
+        private fun expect(c: Char) {
+            if (peek() != c) fail("expected '$c'")
+            i++
+        }
+
+        private fun fail(message: String): Nothing {
+            val line = text.substring(0, minOf(i, text.length)).count { it == '\n' } + 1
+            throw IllegalArgumentException("Invalid JSON at line $line: $message")
+        }
+    }
+}
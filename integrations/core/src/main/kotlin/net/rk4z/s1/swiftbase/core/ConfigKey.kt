@@ -0,0 +1,74 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * A precompiled handle to a single config value.
+ *
+ * The dotted key is split and the converter is chosen once, when the handle is created.
+ * The converted value is cached together with the generation of the snapshot it was read from,
+ * so as long as the config is not reloaded, [get] is just a volatile read and a comparison.
+ *
+ * Handles are cheap to keep around; create them once (for example as a property) and reuse them.
+ *
+ * ```kotlin
+ * val EXAMPLE = CB.configKey<Int>("main.example")
+ * val value = EXAMPLE.get()
+ * ```
+ *
+ * @property key The dotted key this handle reads.
+ */
+class ConfigKey<T> @PublishedApi internal constructor(
+    private val core: Core,
+    val key: String,
+    private val converter: (Any?) -> T?,
+) {
+    private class Cached<T>(val generation: Long, val value: T?)
+
+    private val path: Array<String> = key.split(".").toTypedArray()
+
+    @Volatile
+    private var cached: Cached<T>? = null
+
+    /**
+     * Gets the value of this key from the current config snapshot.
+     *
+     * @return The converted value, or null if the key is missing or can't be converted.
+     */
+    fun get(): T? {
+        var snapshot = core.configSnapshot
+        if (snapshot.generation == 0L) snapshot = core.getConfig()
+
+        val current = cached
+        if (current != null && current.generation == snapshot.generation) return current.value
+
+        val value = converter(resolve(snapshot.root))
+        cached = Cached(snapshot.generation, value)
+        return value
+    }
+
+    /**
+     * Gets the value of this key, or [default] if it is missing or can't be converted.
+     */
+    fun getOrDefault(default: T): T {
+        return get() ?: default
+    }
+
+    /**
+     * Gets the value of this key.
+     *
+     * @throws IllegalStateException If the key is missing or can't be converted.
+     */
+    fun require(): T {
+        return get() ?: throw IllegalStateException("Config key '$key' is missing or has an unexpected type.")
+    }
+
+    private fun resolve(root: Map<String, Any>): Any? {
+        var current: Any? = root
+        for (part in path) {
+            if (current !is Map<*, *>) return null
+            current = current[part]
+        }
+        return current
+    }
+
+    override fun toString(): String = "ConfigKey($key)"
+}
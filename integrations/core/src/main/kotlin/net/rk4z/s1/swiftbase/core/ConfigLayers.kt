@@ -0,0 +1,286 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.io.File
+import java.nio.file.Files
+import java.security.MessageDigest
+
+/**
+ * The files that make up the config, merged in order: the base config file,
+ * then every file in the overlay directory (`config.d/`) sorted by name, then the runtime overrides.
+ *
+ * Each file is parsed separately and its tree is kept, so when a single file changes only that file is parsed again
+ * and only the top-level sections that changed in it are merged again.
+ *
+ * Profile overlays (`profiles/<name>.yml`, or any other [ConfigFormat]) are kept here too, so they are reloaded the same way,
+ * but they are not part of [merged]; each profile is built from [merged] with its overlay applied when a snapshot is created.
+ *
+ * Values changed with [setBaseValue] stay pending until [markBaseWritten] records that they were saved.
+ * Whenever the base file is parsed again before that, the pending values are applied on top of it,
+ * so an edit made outside and a change made at runtime both survive; for a key changed by both, the runtime change wins.
+ *
+ * @param baseFile The main config file.
+ * @param overlayDirectory The directory holding the overlay files.
+ * @param profileDirectory The directory holding the profile files.
+ * @param read Parses a single file.
+ */
+@Suppress("UNCHECKED_CAST")
+internal class ConfigLayers(
+    baseFile: File,
+    overlayDirectory: File,
+    profileDirectory: File,
+    private val read: (File) -> Map<String, Any?>,
+) {
+    val baseFile: File = baseFile.absoluteFile
+    val overlayDirectory: File = overlayDirectory.absoluteFile
+    val profileDirectory: File = profileDirectory.absoluteFile
+
+    private val trees = HashMap<File, Map<String, Any?>>()
+    private var overlayFiles: List<File> = emptyList()
+    private val profileTrees = HashMap<String, Map<String, Any?>>()
+
+    // Values set with setBaseValue that haven't been written yet, by dotted key in the order they were set; null removes the key
+    private val pendingBaseValues = LinkedHashMap<String, Any?>()
+    private var pendingVersion = 0L
+
+    /**
+     * The SHA-256 hash of the base file as it was last parsed or written, or null if it didn't exist.
+     * If the file on disk has another hash, it was edited outside since then.
+     */
+    var baseFileHash: ByteArray? = null
+        private set
+
+    /**
+     * Increases every time [setBaseValue] is called. Passed back to [markBaseWritten].
+     */
+    val pendingBaseVersion: Long
+        get() = pendingVersion
+
+    fun hasPendingBaseValues(): Boolean = pendingBaseValues.isNotEmpty()
+
+    /**
+     * A copy of the pending values, to be handed back to [restoreBase].
+     */
+    fun pendingBaseValues(): Map<String, Any?> = LinkedHashMap(pendingBaseValues)
+
+    /**
+     * Profile overlays defined at runtime, by profile name. They are applied on top of the profile files.
+     */
+    val profileOverrides: MutableMap<String, Map<String, Any?>> = LinkedHashMap()
+
+    /**
+     * Values set at runtime. They are applied on top of every file and are never written to disk.
+     */
+    val overrides: MutableMap<String, Any?> = LinkedHashMap()
+
+    /**
+     * The merged tree of all files, without the runtime overrides. It is frozen (see [ConfigTrees.freeze]),
+     * and the sections a reload doesn't touch are the same instances as before.
+     */
+    var merged: Map<String, Any?> = emptyMap()
+        private set
+
+    fun files(): List<File> = listOf(baseFile) + overlayFiles
+
+    fun isLayerFile(file: File): Boolean {
+        val absolute = file.absoluteFile
+        return absolute == baseFile || isOverlayFile(absolute) || isProfileFile(absolute)
+    }
+
+    /**
+     * The overlay of every profile: its file merged with its runtime overlay.
+     */
+    fun profiles(): Map<String, Map<String, Any?>> {
+        val names = profileTrees.keys + profileOverrides.keys
+        return names.associateWith { name ->
+            val file = profileTrees[name]
+            val overrides = profileOverrides[name]
+            when {
+                overrides == null -> file!!
+                file == null -> overrides
+                else -> LinkedHashMap<String, Any?>().also {
+                    ConfigTrees.mergeInto(it, file)
+                    ConfigTrees.mergeInto(it, overrides)
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses every file again. If a file fails to parse, nothing is changed.
+     */
+    fun loadAll() {
+        val files = listOf(baseFile) + listOverlayFiles()
+        // Hashed before it is parsed, so an edit in between is seen as an outside edit later
+        val baseHash = hashOf(baseFile)
+        val parsed = files.associateWith { read(it) }
+        val parsedProfiles = listFiles(profileDirectory).associate { it.nameWithoutExtension to read(it) }
+
+        trees.clear()
+        trees.putAll(parsed)
+        trees[baseFile] = withPendingValues(parsed.getValue(baseFile))
+        baseFileHash = baseHash
+        overlayFiles = files.drop(1)
+        merged = mergeAll()
+
+        profileTrees.clear()
+        profileTrees.putAll(parsedProfiles)
+    }
+
+    /**
+     * Parses only the given files again and re-merges the sections they touch.
+     * Every file is parsed before anything is changed, so if one fails to parse, nothing is changed.
+     *
+     * @param changed Files that were created, modified or deleted.
+     */
+    fun reload(changed: Collection<File>) {
+        val (profileFiles, layerFiles) = changed.map { it.absoluteFile }.partition { isProfileFile(it) }
+        val parsedProfiles = profileFiles.associate { file -> file.nameWithoutExtension to if (file.exists()) read(file) else null }
+        if (layerFiles.isEmpty() && profileFiles.isNotEmpty()) {
+            commitProfiles(parsedProfiles)
+            return
+        }
+
+        val newOverlayFiles = listOverlayFiles()
+        val current = (listOf(baseFile) + newOverlayFiles).toSet()
+
+        // Files that are new to the layer list have to be parsed even if no event was seen for them
+        val toRead = (layerFiles + current.filter { it !in trees }).toSet()
+        val baseHash = if (baseFile in toRead) hashOf(baseFile) else null
+        val parsed = toRead.associateWith { file -> if (file in current && file.exists()) read(file) else null }
+
+        commitProfiles(parsedProfiles)
+        if (baseFile in toRead) baseFileHash = baseHash
+        val touched = mutableSetOf<String>()
+        for ((file, parsedTree) in parsed) {
+            val tree = if (file == baseFile && pendingBaseValues.isNotEmpty()) withPendingValues(parsedTree ?: emptyMap()) else parsedTree
+            // Only the sections whose content changed are merged again; the others keep their frozen instances
+            val old = trees[file] ?: emptyMap()
+            val new = tree ?: emptyMap()
+            (old.keys + new.keys).filterTo(touched) { old[it] != new[it] || old.containsKey(it) != new.containsKey(it) }
+            if (tree == null) trees.remove(file) else trees[file] = tree
+        }
+
+        val orderChanged = newOverlayFiles != overlayFiles
+        overlayFiles = newOverlayFiles
+
+        merged = if (orderChanged) mergeAll() else remerge(touched)
+    }
+
+    /**
+     * The parsed tree of the base config file.
+     */
+    val baseTree: Map<String, Any?>
+        get() = trees[baseFile] ?: emptyMap()
+
+    /**
+     * Changes a value in the base config file's tree, without touching the file itself.
+     * The tree is copied on write, so trees handed out earlier never change.
+     *
+     * @param value The new value, or null to remove the key.
+     */
+    fun setBaseValue(key: String, value: Any?) {
+        val tree = ConfigTrees.mutableCopyOf(baseTree)
+        if (value == null) ConfigTrees.remove(tree, key) else ConfigTrees.set(tree, key, value)
+        replaceBase(tree, setOf(key.substringBefore('.')))
+
+        // Moved to the end, so it is applied after the values set before it
+        pendingBaseValues.remove(key)
+        pendingBaseValues[key] = value
+        pendingVersion++
+    }
+
+    /**
+     * Puts back a base tree returned by [baseTree] earlier, with the pending values returned by [pendingBaseValues] at the same time.
+     */
+    fun restoreBase(tree: Map<String, Any?>, pending: Map<String, Any?>) {
+        replaceBase(tree, tree.keys + baseTree.keys)
+        pendingBaseValues.clear()
+        pendingBaseValues.putAll(pending)
+    }
+
+    /**
+     * Records that the base tree was written to the base file.
+     *
+     * @param hash The hash of the written content.
+     * @param version The [pendingBaseVersion] of the tree that was written. If a value was set after it,
+     * the pending values are kept until the next write.
+     */
+    fun markBaseWritten(hash: ByteArray, version: Long) {
+        baseFileHash = hash
+        if (version == pendingVersion) pendingBaseValues.clear()
+    }
+
+    private fun withPendingValues(tree: Map<String, Any?>): Map<String, Any?> {
+        if (pendingBaseValues.isEmpty()) return tree
+
+        val copy = ConfigTrees.mutableCopyOf(tree)
+        for ((key, value) in pendingBaseValues) {
+            if (value == null) ConfigTrees.remove(copy, key) else ConfigTrees.set(copy, key, value)
+        }
+        return copy
+    }
+
+    private fun replaceBase(tree: Map<String, Any?>, touched: Set<String>) {
+        trees[baseFile] = tree
+        merged = remerge(touched)
+    }
+
+    private fun commitProfiles(parsed: Map<String, Map<String, Any?>?>) {
+        for ((name, tree) in parsed) {
+            if (tree == null) profileTrees.remove(name) else profileTrees[name] = tree
+        }
+    }
+
+    private fun isOverlayFile(file: File): Boolean {
+        return file.parentFile == overlayDirectory && file.extension.lowercase() in ConfigFormat.EXTENSIONS
+    }
+
+    private fun isProfileFile(file: File): Boolean {
+        return file.parentFile == profileDirectory && file.extension.lowercase() in ConfigFormat.EXTENSIONS
+    }
+
+    private fun listOverlayFiles(): List<File> = listFiles(overlayDirectory)
+
+
+    private fun listFiles(directory: File): List<File> {
+        return directory.listFiles()
+            ?.filter { it.isFile && it.extension.lowercase() in ConfigFormat.EXTENSIONS }
+            ?.map { it.absoluteFile }
+            ?.sortedBy { it.name }
+            ?: emptyList()
+    }
+
+    private fun mergeAll(): Map<String, Any?> {
+        val result = LinkedHashMap<String, Any?>()
+        files().forEach { file -> trees[file]?.let { ConfigTrees.mergeInto(result, it) } }
+        return ConfigTrees.freezeTree(result)
+    }
+
+    private fun remerge(keys: Set<String>): Map<String, Any?> {
+        if (keys.isEmpty()) return merged
+
+        // Sections that no changed file touches are shared with the previous merge as-is
+        val result = LinkedHashMap(merged)
+        keys.forEach { result.remove(it) }
+
+        for (file in files()) {
+            val tree = trees[file] ?: continue
+            val section = tree.filterKeys { it in keys }
+            if (section.isNotEmpty()) ConfigTrees.mergeInto(result, section)
+        }
+        return ConfigTrees.freezeTree(result)
+    }
+
+    companion object {
+        /**
+         * Gets the SHA-256 hash of a file's content, or null if it can't be read.
+         */
+        fun hashOf(file: File): ByteArray? {
+            return try {
+                MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath()))
+            } catch (_: Exception) {
+                null
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * A compiled path expression over the config tree.
+ *
+ * Besides plain dotted keys, an expression can walk into lists and filter them:
+ * - `rewards[0]` selects an element by index,
+ * - `rewards[*]` selects every element of a list (or every value of a section),
+ * - `regions[name=spawn]` selects the elements whose `name` is `spawn` (quote the value to use spaces, dots or brackets).
+ *
+ * ```kotlin
+ * val rewardIds = CB.configPath<String>("rewards[*].id")
+ * val spawnRadius = CB.configPath<Int>("regions[name=spawn].radius")
+ * rewardIds.values()   // [diamond, emerald, ...]
+ * spawnRadius.first()  // 64
+ * ```
+ *
+ * The expression is parsed once. Its result is evaluated against the current config snapshot
+ * and cached until the config is reloaded.
+ *
+ * @property expression The expression this path was compiled from.
+ */
+class ConfigPath<T> @PublishedApi internal constructor(
+    private val core: Core,
+    val expression: String,
+    private val converter: (Any?) -> T?,
+) {
+    private sealed interface Step {
+        class Key(val name: String) : Step
+        class Index(val index: Int) : Step
+        class Filter(val field: String, val value: String) : Step
+        object Wildcard : Step
+    }
+
+    private class Cached<T>(val generation: Long, val values: List<T>)
+
+    private val steps: List<Step> = compile(expression)
+
+    @Volatile
+    private var cached: Cached<T>? = null
+
+    /**
+     * Gets every value the expression matches in the current config.
+     * Values that can't be converted to [T] are skipped.
+     *
+     * @return The matching values, in config order.
+     */
+    fun values(): List<T> {
+        var snapshot = core.configSnapshot
+        if (snapshot.generation == 0L) snapshot = core.getConfig()
+
+        val current = cached
+        if (current != null && current.generation == snapshot.generation) return current.values
+
+        val values = evaluate(snapshot.root).mapNotNull { converter(it) }
+        cached = Cached(snapshot.generation, values)
+        return values
+    }
+
+    /**
+     * Gets the first value the expression matches, or null if there is none.
+     */
+    fun first(): T? = values().firstOrNull()
+
+    private fun evaluate(root: Map<String, Any>): List<Any?> {
+        var nodes: List<Any?> = listOf(root)
+
+        for (step in steps) {
+            val next = ArrayList<Any?>()
+            for (node in nodes) {
+                when (step) {
+                    is Step.Key -> (node as? Map<*, *>)?.let { if (it.containsKey(step.name)) next.add(it[step.name]) }
+                    is Step.Index -> (node as? List<*>)?.let { if (step.index in it.indices) next.add(it[step.index]) }
+                    is Step.Wildcard -> when (node) {
+                        is List<*> -> next.addAll(node)
+                        is Map<*, *> -> next.addAll(node.values)
+                    }
+                    is Step.Filter -> {
+                        val candidates = when (node) {
+                            is List<*> -> node
+                            is Map<*, *> -> node.values
+                            else -> emptyList()
+                        }
+                        candidates.filterTo(next) { (it as? Map<*, *>)?.get(step.field)?.toString() == step.value }
+                    }
+                }
+            }
+            if (next.isEmpty()) return emptyList()
+            nodes = next
+        }
+
+        return nodes
+    }
+
+    override fun toString(): String = "ConfigPath($expression)"
+
+    private companion object {
+        fun compile(expression: String): List<Step> {
+            val steps = mutableListOf<Step>()
+            var i = 0
+
+            fun fail(message: String): Nothing {
+                throw IllegalArgumentException("Invalid config path '$expression' at position $i: $message")
+            }
+
+            fun readUntil(stops: String): String {
+                val start = i
+                while (i < expression.length && expression[i] !in stops) i++
+                return expression.substring(start, i).trim()
+            }
+
+            fun readValue(): String {
+                val quote = expression.getOrNull(i)
+                if (quote != '\'' && quote != '"') return readUntil("]")
+
+                val end = expression.indexOf(quote, i + 1)
+                if (end < 0) fail("unterminated quote")
+                val value = expression.substring(i + 1, end)
+                i = end + 1
+                return value
+            }
+
+            while (i < expression.length) {
+                when (expression[i]) {
+                    '.' -> {
+                        if (i == 0 || i == expression.lastIndex) fail("a path can't start or end with '.'")
+                        if (expression[i - 1] == '.') fail("empty key")
+                        i++
+                    }
+
+                    '[' -> {
+                        i++
+                        val start = i
+                        val content = readUntil("=]")
+                        when {
+                            expression.getOrNull(i) == '=' -> {
+                                if (content.isEmpty()) fail("a filter needs a field name")
+                                i++
+                                steps.add(Step.Filter(content, readValue()))
+                            }
+                            content == "*" -> steps.add(Step.Wildcard)
+                            else -> steps.add(Step.Index(content.toIntOrNull()?.takeIf { it >= 0 } ?: run { i = start; fail("'$content' is not an index") }))
+                        }
+                        if (expression.getOrNull(i) != ']') fail("expected ']'")
+                        i++
+                    }
+
+                    else -> {
+                        val name = readUntil(".[")
+                        if (name.isEmpty()) fail("empty key")
+                        steps.add(if (name == "*") Step.Wildcard else Step.Key(name))
+                    }
+                }
+            }
+
+            if (steps.isEmpty()) throw IllegalArgumentException("Config path can't be empty")
+            return steps
+        }
+    }
+}
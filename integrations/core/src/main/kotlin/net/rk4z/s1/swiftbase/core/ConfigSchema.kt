@@ -0,0 +1,186 @@
+package net.rk4z.s1.swiftbase.core
+
+import kotlin.reflect.KClass
+
+/**
+ * A declarative description of the config file: which keys exist, their types, allowed ranges and defaults.
+ *
+ * The schema is checked in a single pass every time the config is loaded. Values are converted to the declared type
+ * once, missing or invalid values are replaced by their defaults, and every problem is collected into one [ConfigReport].
+ * A value that is missing or invalid and has no default makes the load fail,
+ * so once a load has succeeded, every declared key can be read without null handling.
+ *
+ * ```kotlin
+ * CB.configSchema = ConfigSchema.build {
+ *     int("main.port", default = 25565, range = 1..65535)
+ *     string("main.motd", default = "Hello")
+ *     boolean("main.debug", default = false)
+ * }
+ * ```
+ */
+@Suppress("unused", "MemberVisibilityCanBePrivate")
+class ConfigSchema private constructor(
+    val entries: List<Entry<*>>,
+) {
+    companion object {
+        @JvmStatic
+        fun build(block: Builder.() -> Unit): ConfigSchema {
+            return Builder().apply(block).build()
+        }
+    }
+
+    /**
+     * A single declared key.
+     *
+     * @property key The dotted key.
+     * @property type The type the value is converted to.
+     * @property default The value used when the key is missing or invalid, or null if the key is required.
+     * @property check Returns a description of the problem if a converted value is not allowed, or null if it is fine.
+     */
+    class Entry<T : Any> internal constructor(
+        val key: String,
+        val type: KClass<T>,
+        val default: T?,
+        private val check: ((T) -> String?)?,
+    ) {
+        private val converter = ConfigConverters.forType(type)
+
+        internal fun apply(tree: MutableMap<String, Any?>, report: ConfigReport) {
+            if (!ConfigTrees.contains(tree, key)) {
+                useDefault(tree, report, "is missing")
+                return
+            }
+
+            val raw = ConfigTrees.get(tree, key)
+            val value = try {
+                converter(raw)
+            } catch (_: Exception) {
+                null
+            }
+
+            if (value == null) {
+                useDefault(tree, report, "must be ${type.simpleName} but was '$raw'")
+                return
+            }
+
+            val problem = check?.invoke(value)
+            if (problem != null) {
+                useDefault(tree, report, problem)
+                return
+            }
+
+            // Store the converted value so readers never have to convert it again
+            if (value !== raw) ConfigTrees.set(tree, key, value)
+        }
+
+        private fun useDefault(tree: MutableMap<String, Any?>, report: ConfigReport, problem: String) {
+            if (default != null) {
+                ConfigTrees.set(tree, key, default)
+                report.warn(key, "$problem, using default '$default'")
+            } else {
+                report.error(key, problem)
+            }
+        }
+    }
+
+    class Builder internal constructor() {
+        private val entries = mutableListOf<Entry<*>>()
+
+        fun <T : Any> value(key: String, type: KClass<T>, default: T? = null, check: ((T) -> String?)? = null): Entry<T> {
+            require(entries.none { it.key == key }) { "Config key '$key' is declared twice." }
+            return Entry(key, type, default, check).also { entries.add(it) }
+        }
+
+        fun string(key: String, default: String? = null, allowed: Collection<String>? = null, pattern: Regex? = null): Entry<String> {
+            return value(key, String::class, default) { value ->
+                when {
+                    allowed != null && value !in allowed -> "must be one of ${allowed.joinToString(", ")} but was '$value'"
+                    pattern != null && !pattern.matches(value) -> "must match '${pattern.pattern}' but was '$value'"
+                    else -> null
+                }
+            }
+        }
+
+        fun int(key: String, default: Int? = null, range: IntRange? = null): Entry<Int> {
+            return value(key, Int::class, default) { value -> rangeProblem(value, range) }
+        }
+
+        fun long(key: String, default: Long? = null, range: LongRange? = null): Entry<Long> {
+            return value(key, Long::class, default) { value -> rangeProblem(value, range) }
+        }
+
+        fun double(key: String, default: Double? = null, range: ClosedFloatingPointRange<Double>? = null): Entry<Double> {
+            return value(key, Double::class, default) { value -> rangeProblem(value, range) }
+        }
+
+        fun boolean(key: String, default: Boolean? = null): Entry<Boolean> {
+            return value(key, Boolean::class, default)
+        }
+
+        fun list(key: String, default: List<*>? = null, size: IntRange? = null): Entry<List<*>> {
+            return value(key, List::class, default) { value -> rangeProblem(value.size, size)?.let { "size $it" } }
+        }
+
+        fun section(key: String, default: Map<*, *>? = null): Entry<Map<*, *>> {
+            return value(key, Map::class, default)
+        }
+
+        internal fun build(): ConfigSchema = ConfigSchema(entries.toList())
+
+        private fun <T : Comparable<T>> rangeProblem(value: T, range: ClosedRange<T>?): String? {
+            if (range == null || value in range) return null
+            return "must be between ${range.start} and ${range.endInclusive} but was $value"
+        }
+    }
+
+    /**
+     * Checks and normalizes a mutable config tree in place.
+     */
+    internal fun apply(tree: MutableMap<String, Any?>, report: ConfigReport) {
+        entries.forEach { it.apply(tree, report) }
+    }
+}
+
+/**
+ * Every problem found while loading the config, collected so it can be reported at once.
+ */
+class ConfigReport internal constructor(
+    val source: String,
+) {
+    enum class Severity { INFO, WARN, ERROR }
+
+    data class Issue(val key: String, val severity: Severity, val message: String)
+
+    private val _issues = mutableListOf<Issue>()
+    val issues: List<Issue> get() = _issues
+
+    val hasErrors: Boolean get() = _issues.any { it.severity == Severity.ERROR }
+
+    internal fun info(key: String, message: String) {
+        _issues.add(Issue(key, Severity.INFO, message))
+    }
+
+    internal fun warn(key: String, message: String) {
+        _issues.add(Issue(key, Severity.WARN, message))
+    }
+
+    internal fun error(key: String, message: String) {
+        _issues.add(Issue(key, Severity.ERROR, message))
+    }
+
+    fun isEmpty(): Boolean = _issues.isEmpty()
+
+    /**
+     * Adds the issues of another report that this one doesn't have yet, noting where they were found.
+     */
+    internal fun include(other: ConfigReport, origin: String) {
+        other._issues.filterNot { it in _issues }.forEach { _issues.add(it.copy(message = "${it.message} (in $origin)")) }
+    }
+
+    override fun toString(): String {
+        return buildString {
+            append("Config report for '").append(source).append("' (").append(_issues.size).append(" issues)")
+            _issues.forEach { append("\n  [").append(it.severity).append("] ").append(it.key).append(": ").append(it.message) }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.reflect.KClass
+
+/**
+ * An immutable, already parsed view of the config file.
+ *
+ * A new snapshot is created every time the config file is (re)loaded and is published with a single
+ * volatile write, so readers on any thread either see the old tree or the new one, never a mix of both.
+ *
+ * Every path of the tree is indexed when the snapshot is created, so [resolve] and the typed getters are a single hash lookup.
+ * Keys that contain a `.` are dropped (and reported) before the snapshot is built, so a dotted path always means
+ * the same value as walking the tree one segment at a time.
+ *
+ * A snapshot also carries the config profiles (see [profile]) built from the same config generation.
+ * A profile is a snapshot too: its tree goes through the same environment overrides, defaults and schema as the base tree,
+ * with the profile's overlay applied. Every top-level section that ends up equal to the base's is shared with the base
+ * snapshot, and lookups in it use the base snapshot's index, so a profile only indexes the sections it changes.
+ *
+ * @property root The root of the config tree. Nested maps and lists are read-only.
+ * @property generation Increases every time a new snapshot is published. `0` means "nothing loaded yet".
+ * @property profileName The name of the profile this snapshot belongs to, or null for the base config.
+ */
+class ConfigSnapshot internal constructor(
+    val root: Map<String, Any>,
+    val generation: Long,
+    val profileName: String? = null,
+    profileTrees: Map<String, Map<String, Any?>> = emptyMap(),
+    private val base: ConfigSnapshot? = null,
+) {
+    /**
+     * A leaf value pre-converted to every primitive type it can be read as.
+     * Reading it does not box or allocate.
+     */
+    internal class Primitive(
+        @JvmField val long: Long,
+        @JvmField val double: Double,
+        @JvmField val boolean: Boolean,
+        @JvmField val flags: Int,
+    ) {
+        companion object {
+            const val INT = 1
+            const val LONG = 2
+            const val DOUBLE = 4
+            const val BOOLEAN = 8
+
+            fun of(value: Any): Primitive? {
+                val asLong = when (value) {
+                    is Int, is Long, is Short, is Byte -> (value as Number).toLong()
+                    is String -> value.toLongOrNull()
+                    else -> value.toString().toLongOrNull()
+                }
+                val asDouble = when (value) {
+                    is Double -> value
+                    is Number -> value.toString().toDoubleOrNull()
+                    else -> value.toString().toDoubleOrNull()
+                }
+                val asBoolean = value as? Boolean ?: value.toString().toBooleanOrNull()
+
+                var flags = 0
+                if (asLong != null) {
+                    flags = flags or LONG
+                    if (asLong in Int.MIN_VALUE..Int.MAX_VALUE) flags = flags or INT
+                }
+                if (asDouble != null) flags = flags or DOUBLE
+                if (asBoolean != null) flags = flags or BOOLEAN
+                if (flags == 0) return null
+
+                return Primitive(asLong ?: 0L, asDouble ?: 0.0, asBoolean ?: false, flags)
+            }
+        }
+
+        fun has(flag: Int): Boolean = flags and flag != 0
+    }
+
+    /**
+     * For a profile, the top-level sections that differ from the base snapshot. Only these are indexed here.
+     */
+    private val ownSections: Set<String> =
+        if (base == null) emptySet() else (root.keys + base.root.keys).filterTo(HashSet()) { root[it] !== base.root[it] }
+
+    private val indexed: Map<String, Any> = if (base == null) root else root.filterKeys { it in ownSections }
+
+    /**
+     * Every section and leaf of the tree, keyed by its full dotted path.
+     */
+    private val paths: Map<String, Any> = HashMap<String, Any>().also { indexPaths(indexed, "", it) }
+
+    /**
+     * Every leaf of the tree that can be read as a primitive, keyed by its full dotted path.
+     */
+    private val primitives: Map<String, Primitive> = HashMap<String, Primitive>().also { indexPrimitives(indexed, "", it) }
+
+    private val profiles: Map<String, ConfigSnapshot> = profileTrees.mapValues { (name, tree) ->
+        ConfigSnapshot(shareSections(ConfigTrees.freezeTree(tree), root), generation, name, base = this)
+    }
+
+    /**
+     * The names of the profiles in this snapshot.
+     */
+    val profileNames: Set<String>
+        get() = profiles.keys
+
+    /**
+     * Values decoded by a [ConfigCodec], per decoded type and key. Dropped together with the snapshot on reload.
+     */
+    private val decoded = ConcurrentHashMap<KClass<*>, ConcurrentHashMap<String, Any>>()
+
+    companion object {
+        private val UNDECODABLE = Any()
+
+        @JvmStatic
+        val EMPTY = ConfigSnapshot(emptyMap(), 0)
+
+        private fun indexPaths(map: Map<*, *>, prefix: String, out: MutableMap<String, Any>) {
+            for ((key, value) in map) {
+                if (value == null) continue
+                val path = if (prefix.isEmpty()) key.toString() else "$prefix.$key"
+                out[path] = value
+                if (value is Map<*, *>) indexPaths(value, path, out)
+            }
+        }
+
+        private fun indexPrimitives(map: Map<*, *>, prefix: String, out: MutableMap<String, Primitive>) {
+            for ((key, value) in map) {
+                val path = if (prefix.isEmpty()) key.toString() else "$prefix.$key"
+                when (value) {
+                    null, is List<*> -> {}
+                    is Map<*, *> -> indexPrimitives(value, path, out)
+                    else -> Primitive.of(value)?.let { out[path] = it }
+                }
+            }
+        }
+
+        /**
+         * Creates a snapshot of a config tree. Sections of the tree that are already frozen (see [ConfigTrees.freeze])
+         * are shared as they are; everything else is copied, so nothing outside the snapshot keeps a reference
+         * to its maps and lists and the snapshot can be shared between threads safely.
+         *
+         * @param profileTrees The complete tree of every profile, by profile name.
+         */
+        internal fun of(root: Map<String, Any?>, generation: Long, profileTrees: Map<String, Map<String, Any?>> = emptyMap()): ConfigSnapshot {
+            @Suppress("UNCHECKED_CAST")
+            return ConfigSnapshot(ConfigTrees.freezeTree(root) as Map<String, Any>, generation, null, profileTrees)
+        }
+
+        /**
+         * Replaces every top-level section of a frozen profile tree that is equal to the base tree's with the base's instance.
+         */
+        @Suppress("UNCHECKED_CAST")
+        private fun shareSections(tree: Map<String, Any?>, base: Map<String, Any>): Map<String, Any> {
+            var result: LinkedHashMap<String, Any?>? = null
+            for ((key, value) in tree) {
+                val existing = base[key]
+                if (value !== existing && value == existing) {
+                    if (result == null) result = LinkedHashMap(tree)
+                    result[key] = existing
+                }
+            }
+            return (result?.let { ConfigTrees.FrozenMap(it) } ?: tree) as Map<String, Any>
+        }
+    }
+
+    /**
+     * Resolves a dotted key like `main.example` against this snapshot.
+     *
+     * @param key The dotted key.
+     * @return The raw value, or null if any part of the path does not exist.
+     */
+    fun resolve(key: String): Any? {
+        paths[key]?.let { return it }
+        return if (base == null || isOwnSection(key)) null else base.resolve(key)
+    }
+
+    /**
+     * Gets a profile of this snapshot: the base config with the profile's overlay applied.
+     *
+     * @param name The name of the profile, like a world or group name.
+     * @return The profile, or this snapshot if there is no profile with that name.
+     */
+    fun profile(name: String): ConfigSnapshot = profiles[name] ?: this
+
+    fun hasProfile(name: String): Boolean = profiles.containsKey(name)
+
+    private fun primitive(key: String): Primitive? {
+        primitives[key]?.let { return it }
+        return if (base == null || isOwnSection(key)) null else base.primitive(key)
+    }
+
+    private fun isOwnSection(key: String): Boolean {
+        if (ownSections.isEmpty()) return false
+        // Keys never contain '.', so the top-level section is everything before the first one
+        val dot = key.indexOf('.')
+        return ownSections.contains(if (dot < 0) key else key.substring(0, dot))
+    }
+
+    /**
+     * Gets a value converted to [T], the same way [Core.lc] does.
+     *
+     * @param key The dotted key.
+     * @return The converted value, or null if the key is missing or can't be converted.
+     */
+    inline fun <reified T> get(key: String): T? {
+        @Suppress("UNCHECKED_CAST")
+        val type = T::class as KClass<Any>
+        if (ConfigConverters.isDecoded(type)) return decoded(key, type) as? T
+        return ConfigConverters.forType(type)(resolve(key)) as? T
+    }
+
+    /**
+     * Gets an Int without boxing.
+     *
+     * @param default Returned when the key is missing or is not an Int.
+     */
+    fun getInt(key: String, default: Int): Int {
+        val primitive = primitive(key) ?: return default
+        return if (primitive.has(Primitive.INT)) primitive.long.toInt() else default
+    }
+
+    /**
+     * Gets a Long without boxing.
+     *
+     * @param default Returned when the key is missing or is not a Long.
+     */
+    fun getLong(key: String, default: Long): Long {
+        val primitive = primitive(key) ?: return default
+        return if (primitive.has(Primitive.LONG)) primitive.long else default
+    }
+
+    /**
+     * Gets a Double without boxing.
+     *
+     * @param default Returned when the key is missing or is not a number.
+     */
+    fun getDouble(key: String, default: Double): Double {
+        val primitive = primitive(key) ?: return default
+        return if (primitive.has(Primitive.DOUBLE)) primitive.double else default
+    }
+
+    /**
+     * Gets a Boolean without boxing.
+     *
+     * @param default Returned when the key is missing or is not a Boolean.
+     */
+    fun getBoolean(key: String, default: Boolean): Boolean {
+        val primitive = primitive(key) ?: return default
+        return if (primitive.has(Primitive.BOOLEAN)) primitive.boolean else default
+    }
+
+    /**
+     * Resolves a key and decodes it with the converter for [type], reusing the result for the rest of this generation.
+     *
+     * @param key The dotted key.
+     * @param type A type [ConfigConverters.isDecoded] returns true for.
+     * @return The decoded value, or null if the key is missing or can't be decoded.
+     */
+    @PublishedApi
+    internal fun <T : Any> decoded(key: String, type: KClass<T>): T? {
+        val values = decoded.computeIfAbsent(type) { ConcurrentHashMap() }
+        val value = values.getOrPut(key) { ConfigConverters.forType(type)(resolve(key)) ?: UNDECODABLE }
+
+        @Suppress("UNCHECKED_CAST")
+        return if (value === UNDECODABLE) null else value as T
+    }
+
+    fun isEmpty(): Boolean = root.isEmpty()
+}
@@ -0,0 +1,61 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * A listener registered with [Core.onConfigChange].
+ *
+ * @property prefix The dotted key prefix the listener is interested in. An empty prefix matches every change.
+ */
+class ConfigSubscription internal constructor(
+    val prefix: String,
+    private val listener: (ConfigChange) -> Unit,
+    private val onCancel: (ConfigSubscription) -> Unit,
+) {
+    /**
+     * Whether a change at [path] affects the subtree at [prefix].
+     * That is the case when the path lies inside the subtree, or when it replaces or removes a section containing it.
+     */
+    internal fun matches(path: String): Boolean {
+        if (prefix.isEmpty() || path == prefix) return true
+        return path.startsWith("$prefix.") || prefix.startsWith("$path.")
+    }
+
+    internal fun notify(change: ConfigChange) {
+        try {
+            listener(change)
+        } catch (e: Exception) {
+            Logger.error("Config change listener for '$prefix' failed: ${e.message}")
+        }
+    }
+
+    /**
+     * Stops notifying this listener.
+     */
+    fun cancel() {
+        onCancel(this)
+    }
+}
+
+/**
+ * Describes a reload that changed the subtree a [ConfigSubscription] listens to.
+ *
+ * @property prefix The prefix of the subscription being notified.
+ * @property changedKeys The changed paths that affect [prefix].
+ * @property old The snapshot before the reload.
+ * @property new The snapshot after the reload.
+ */
+class ConfigChange internal constructor(
+    val prefix: String,
+    val changedKeys: Set<String>,
+    val old: ConfigSnapshot,
+    val new: ConfigSnapshot,
+) {
+    /**
+     * The value of the subscribed subtree before the reload.
+     */
+    val oldValue: Any? get() = if (prefix.isEmpty()) old.root else old.resolve(prefix)
+
+    /**
+     * The value of the subscribed subtree after the reload.
+     */
+    val newValue: Any? get() = if (prefix.isEmpty()) new.root else new.resolve(prefix)
+}
@@ -0,0 +1,238 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.Date
+
+/**
+ * Stores parsed config trees in a compact binary form, so unchanged config files don't have to be parsed again on startup.
+ *
+ * Every cache file starts with the modification time, size and SHA-256 hash of the source file it was created from.
+ * The cached tree is only used when all three still match; otherwise the source is parsed and the cache is rewritten.
+ *
+ * @param directory The directory cache files are written to.
+ */
+internal class ConfigTreeCache(private val directory: File) {
+    companion object {
+        private const val MAGIC = 0x53424346 // "SBCF"
+        private const val FORMAT_VERSION = 1
+
+        private const val NULL: Byte = 0
+        private const val MAP: Byte = 1
+        private const val LIST: Byte = 2
+        private const val STRING: Byte = 3
+        private const val INT: Byte = 4
+        private const val LONG: Byte = 5
+        private const val DOUBLE: Byte = 6
+        private const val FLOAT: Byte = 7
+        private const val TRUE: Byte = 8
+        private const val FALSE: Byte = 9
+        private const val BIG_INTEGER: Byte = 10
+        private const val BIG_DECIMAL: Byte = 11
+        private const val DATE: Byte = 12
+        private const val BYTES: Byte = 13
+        private const val SET: Byte = 14
+    }
+
+    private class UnsupportedValueException(value: Any) : IOException("Can't cache a value of type ${value::class.qualifiedName}")
+
+    /**
+     * Loads the tree of [source], either from its cache file or by parsing it with [parse].
+     *
+     * @param source The config file.
+     * @param parse Parses the raw bytes of [source].
+     * @return The parsed tree.
+     */
+    fun load(source: File, parse: (ByteArray) -> Map<String, Any?>): Map<String, Any?> {
+        val bytes = Files.readAllBytes(source.toPath())
+        val mtime = source.lastModified()
+        val hash = MessageDigest.getInstance("SHA-256").digest(bytes)
+        val cacheFile = cacheFileFor(source)
+
+        readCache(cacheFile, mtime, bytes.size.toLong(), hash)?.let {
+            Logger.logIfDebug("Loaded '${source.name}' from the config cache")
+            return it
+        }
+
+        val tree = parse(bytes)
+        writeCache(cacheFile, mtime, bytes.size.toLong(), hash, tree)
+        return tree
+    }
+
+    /**
+     * Deletes the cache file of [source], so a file that was just replaced isn't checked against a stale cache.
+     *
+     * @param source The config file.
+     */
+    fun invalidate(source: File) {
+        cacheFileFor(source).delete()
+    }
+
+    private fun cacheFileFor(source: File): File {
+        val id = source.absolutePath.hashCode().toUInt().toString(16)
+        return File(directory, "${source.nameWithoutExtension}-$id.bin")
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun readCache(cacheFile: File, mtime: Long, size: Long, hash: ByteArray): Map<String, Any?>? {
+        if (!cacheFile.isFile) return null
+
+        return try {
+            DataInputStream(BufferedInputStream(Files.newInputStream(cacheFile.toPath()))).use { input ->
+                if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) return null
+                if (input.readLong() != mtime || input.readLong() != size) return null
+                val cachedHash = ByteArray(input.readUnsignedByte())
+                input.readFully(cachedHash)
+                if (!cachedHash.contentEquals(hash)) return null
+
+                readValue(input) as? Map<String, Any?>
+            }
+        } catch (e: Exception) {
+            Logger.logIfDebug("Ignoring unreadable config cache '${cacheFile.name}': ${e.message}", LogLevel.WARN)
+            null
+        }
+    }
+
+    private fun writeCache(cacheFile: File, mtime: Long, size: Long, hash: ByteArray, tree: Map<String, Any?>) {
+        try {
+            directory.mkdirs()
+            val temp = File.createTempFile(cacheFile.name, ".tmp", directory)
+            try {
+                DataOutputStream(BufferedOutputStream(Files.newOutputStream(temp.toPath()))).use { output ->
+                    output.writeInt(MAGIC)
+                    output.writeInt(FORMAT_VERSION)
+                    output.writeLong(mtime)
+                    output.writeLong(size)
+                    output.writeByte(hash.size)
+                    output.write(hash)
+                    writeValue(output, tree)
+                }
+                Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+            } finally {
+                temp.delete()
+            }
+        } catch (e: Exception) {
+            Logger.logIfDebug("Could not write config cache '${cacheFile.name}': ${e.message}", LogLevel.WARN)
+        }
+    }
+
+    private fun writeValue(output: DataOutputStream, value: Any?) {
+        when (value) {
+            null -> output.writeByte(NULL.toInt())
+            is Map<*, *> -> {
+                output.writeByte(MAP.toInt())
+                output.writeInt(value.size)
+                value.forEach { (k, v) ->
+                    writeString(output, k.toString())
+                    writeValue(output, v)
+                }
+            }
+            is List<*> -> {
+                output.writeByte(LIST.toInt())
+                output.writeInt(value.size)
+                value.forEach { writeValue(output, it) }
+            }
+            is Set<*> -> {
+                output.writeByte(SET.toInt())
+                output.writeInt(value.size)
+                value.forEach { writeValue(output, it) }
+            }
+            is String -> {
+                output.writeByte(STRING.toInt())
+                writeString(output, value)
+            }
+            is Int -> {
+                output.writeByte(INT.toInt())
+                output.writeInt(value)
+            }
+            is Long -> {
+                output.writeByte(LONG.toInt())
+                output.writeLong(value)
+            }
+            is Double -> {
+                output.writeByte(DOUBLE.toInt())
+                output.writeDouble(value)
+            }
+            is Float -> {
+                output.writeByte(FLOAT.toInt())
+                output.writeFloat(value)
+            }
+            is Boolean -> output.writeByte(if (value) TRUE.toInt() else FALSE.toInt())
+            is BigInteger -> {
+                output.writeByte(BIG_INTEGER.toInt())
+                writeString(output, value.toString())
+            }
+            is BigDecimal -> {
+                output.writeByte(BIG_DECIMAL.toInt())
+                writeString(output, value.toString())
+            }
+            is Date -> {
+                output.writeByte(DATE.toInt())
+                output.writeLong(value.time)
+            }
+            is ByteArray -> {
+                output.writeByte(BYTES.toInt())
+                output.writeInt(value.size)
+                output.write(value)
+            }
+            else -> throw UnsupportedValueException(value)
+        }
+    }
+
+    private fun readValue(input: DataInputStream): Any? {
+        return when (val tag = input.readByte()) {
+            NULL -> null
+            MAP -> {
+                val size = input.readInt()
+                val map = LinkedHashMap<String, Any?>(size * 4 / 3 + 1)
+                repeat(size) { map[readString(input)] = readValue(input) }
+                map
+            }
+            LIST -> {
+                val size = input.readInt()
+                val list = ArrayList<Any?>(size)
+                repeat(size) { list.add(readValue(input)) }
+                list
+            }
+            SET -> {
+                val size = input.readInt()
+                val set = LinkedHashSet<Any?>(size * 4 / 3 + 1)
+                repeat(size) { set.add(readValue(input)) }
+                set
+            }
+            STRING -> readString(input)
+            INT -> input.readInt()
+            LONG -> input.readLong()
+            DOUBLE -> input.readDouble()
+            FLOAT -> input.readFloat()
+            TRUE -> true
+            FALSE -> false
+            BIG_INTEGER -> BigInteger(readString(input))
+            BIG_DECIMAL -> BigDecimal(readString(input))
+            DATE -> Date(input.readLong())
+            BYTES -> ByteArray(input.readInt()).also { input.readFully(it) }
+            else -> throw IOException("Unknown tag $tag")
+        }
+    }
+
+    private fun writeString(output: DataOutputStream, value: String) {
+        val bytes = value.toByteArray(Charsets.UTF_8)
+        output.writeInt(bytes.size)
+        output.write(bytes)
+    }
+
+    private fun readString(input: DataInputStream): String {
+        val bytes = ByteArray(input.readInt())
+        input.readFully(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+}
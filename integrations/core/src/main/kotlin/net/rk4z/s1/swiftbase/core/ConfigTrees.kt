@@ -0,0 +1,220 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * Helpers for working with raw, mutable config trees (nested maps and lists as produced by the parser)
+ * before they are frozen into a [ConfigSnapshot].
+ *
+ * A tree may also contain frozen sections (see [freeze]). The helpers that write to a tree copy a frozen section
+ * before changing it, so a frozen section can be shared between trees and is copied only where a tree differs.
+ */
+@Suppress("UNCHECKED_CAST")
+internal object ConfigTrees {
+    /**
+     * A read-only section of a frozen tree. Kotlin sees it as a read-only map, so `is MutableMap` is false for it.
+     */
+    class FrozenMap(private val map: Map<String, Any?>) : Map<String, Any?> by map {
+        override fun equals(other: Any?): Boolean = map == other
+        override fun hashCode(): Int = map.hashCode()
+        override fun toString(): String = map.toString()
+    }
+
+    /**
+     * A read-only list of a frozen tree.
+     */
+    class FrozenList(private val list: List<Any?>) : List<Any?> by list {
+        override fun equals(other: Any?): Boolean = list == other
+        override fun hashCode(): Int = list.hashCode()
+        override fun toString(): String = list.toString()
+    }
+
+    /**
+     * Creates a deep, read-only copy of a tree.
+     * Sections that are already frozen are shared instead of copied, so only the parts built since the last freeze are copied.
+     */
+    fun freeze(value: Any?): Any? {
+        return when (value) {
+            is FrozenMap, is FrozenList -> value
+            is Map<*, *> -> {
+                val copy = LinkedHashMap<String, Any?>(value.size * 4 / 3 + 1)
+                value.forEach { (k, v) -> copy[k.toString()] = freeze(v) }
+                FrozenMap(copy)
+            }
+            is List<*> -> FrozenList(value.map { freeze(it) })
+            else -> value
+        }
+    }
+
+    fun freezeTree(tree: Map<String, Any?>): Map<String, Any?> = freeze(tree) as Map<String, Any?>
+
+    /**
+     * Gets a section of [tree] that can be written to, replacing a frozen section with a shallow copy of it first.
+     */
+    private fun writableSection(tree: MutableMap<String, Any?>, key: String, section: Map<*, *>): MutableMap<String, Any?> {
+        if (section is MutableMap<*, *>) return section as MutableMap<String, Any?>
+        return LinkedHashMap(section as Map<String, Any?>).also { tree[key] = it }
+    }
+    /**
+     * Deep-copies a tree into fresh mutable maps and lists.
+     */
+    fun mutableCopy(value: Any?): Any? {
+        return when (value) {
+            is Map<*, *> -> {
+                val copy = LinkedHashMap<String, Any?>(value.size * 4 / 3 + 1)
+                value.forEach { (k, v) -> copy[k.toString()] = mutableCopy(v) }
+                copy
+            }
+            is List<*> -> value.mapTo(ArrayList(value.size)) { mutableCopy(it) }
+            else -> value
+        }
+    }
+
+    fun mutableCopyOf(tree: Map<String, Any?>): MutableMap<String, Any?> {
+        return mutableCopy(tree) as MutableMap<String, Any?>
+    }
+
+    /**
+     * Resolves a dotted path in a tree.
+     *
+     * @return The value, or null if any part of the path does not exist.
+     */
+    fun get(tree: Map<String, Any?>, path: String): Any? {
+        var current: Any? = tree
+        for (part in path.split(".")) {
+            if (current !is Map<*, *>) return null
+            current = current[part]
+        }
+        return current
+    }
+
+    fun contains(tree: Map<String, Any?>, path: String): Boolean {
+        var current: Any? = tree
+        val parts = path.split(".")
+        for ((i, part) in parts.withIndex()) {
+            if (current !is Map<*, *>) return false
+            if (i == parts.lastIndex) return current.containsKey(part)
+            current = current[part]
+        }
+        return false
+    }
+
+    /**
+     * Sets a value at a dotted path, creating (or replacing non-map values with) intermediate sections.
+     */
+    fun set(tree: MutableMap<String, Any?>, path: String, value: Any?) {
+        val parts = path.split(".")
+        var current = tree
+        for (part in parts.dropLast(1)) {
+            val next = current[part]
+            current = if (next is Map<*, *>) {
+                writableSection(current, part, next)
+            } else {
+                LinkedHashMap<String, Any?>().also { current[part] = it }
+            }
+        }
+        current[parts.last()] = value
+    }
+
+    /**
+     * Removes the value at a dotted path.
+     *
+     * @return Whether a value was removed.
+     */
+    fun remove(tree: MutableMap<String, Any?>, path: String): Boolean {
+        if (!contains(tree, path)) return false
+
+        val parts = path.split(".")
+        var current = tree
+        for (part in parts.dropLast(1)) {
+            current = writableSection(current, part, current[part] as Map<*, *>)
+        }
+        current.remove(parts.last())
+        return true
+    }
+
+    /**
+     * Merges [overlay] into [target]. Sections are merged recursively,
+     * every other value in [overlay] replaces the one in [target].
+     */
+    fun mergeInto(target: MutableMap<String, Any?>, overlay: Map<String, Any?>) {
+        for ((key, value) in overlay) {
+            val existing = target[key]
+            if (value is Map<*, *> && existing is Map<*, *>) {
+                mergeInto(writableSection(target, key, existing), value as Map<String, Any?>)
+            } else {
+                target[key] = mutableCopy(value)
+            }
+        }
+    }
+
+    /**
+     * Copies every value of [defaults] that is missing from [target] into it.
+     *
+     * @param added Receives the dotted path of every value that was copied.
+     */
+    fun fillMissing(target: MutableMap<String, Any?>, defaults: Map<String, Any?>, prefix: String = "", added: MutableList<String>? = null) {
+        for ((key, value) in defaults) {
+            val path = if (prefix.isEmpty()) key else "$prefix.$key"
+            val existing = target[key]
+            when {
+                !target.containsKey(key) -> {
+                    target[key] = mutableCopy(value)
+                    added?.add(path)
+                }
+                value is Map<*, *> && existing is Map<*, *> && hasMissing(existing, value) ->
+                    fillMissing(writableSection(target, key, existing), value as Map<String, Any?>, path, added)
+            }
+        }
+    }
+
+    /**
+     * Removes every key that contains a `.`. A dotted path can't tell such a key apart from a nested one,
+     * so it could shadow (or be shadowed by) another value.
+     *
+     * @param removed Receives the dotted path of every key that was removed.
+     */
+    fun removeDottedKeys(tree: MutableMap<String, Any?>, removed: MutableList<String>, prefix: String = "") {
+        if (!hasDottedKey(tree)) return
+
+        for (key in tree.keys.toList()) {
+            val path = if (prefix.isEmpty()) key else "$prefix.$key"
+            val value = tree[key]
+            if ('.' in key) {
+                tree.remove(key)
+                removed.add(path)
+            } else if (value is Map<*, *> && hasDottedKey(value)) {
+                removeDottedKeys(writableSection(tree, key, value), removed, path)
+            }
+        }
+    }
+
+    private fun hasDottedKey(map: Map<*, *>): Boolean {
+        return map.any { (key, value) -> '.' in key.toString() || (value is Map<*, *> && hasDottedKey(value)) }
+    }
+
+    private fun hasMissing(target: Map<*, *>, defaults: Map<*, *>): Boolean {
+        return defaults.any { (key, value) ->
+            val existing = target[key]
+            !target.containsKey(key) || (value is Map<*, *> && existing is Map<*, *> && hasMissing(existing, value))
+        }
+    }
+
+    /**
+     * Finds every path whose value differs between two trees.
+     * Sections that exist in both trees are compared recursively; anything else is reported at the point where it differs.
+     *
+     * @return The dotted paths that were added, removed or changed.
+     */
+    fun diff(old: Map<*, *>, new: Map<*, *>, prefix: String = "", out: MutableSet<String> = LinkedHashSet()): Set<String> {
+        for (key in old.keys + new.keys) {
+            val path = if (prefix.isEmpty()) key.toString() else "$prefix.$key"
+            val before = old[key]
+            val after = new[key]
+            when {
+                before === after -> {}
+                before is Map<*, *> && after is Map<*, *> -> diff(before, after, path, out)
+                before != after || old.containsKey(key) != new.containsKey(key) -> out.add(path)
+            }
+        }
+        return out
+    }
+}
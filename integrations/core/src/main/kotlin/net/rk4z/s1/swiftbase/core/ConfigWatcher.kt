@@ -0,0 +1,122 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.nio.file.ClosedWatchServiceException
+import java.nio.file.FileSystems
+import java.nio.file.Path
+import java.nio.file.StandardWatchEventKinds
+import java.nio.file.WatchKey
+import java.nio.file.WatchService
+import java.util.concurrent.TimeUnit
+
+/**
+ * Watches directories for changes with a [WatchService] on a single daemon thread.
+ *
+ * Editors usually write a file in several steps (truncate, write, rename...), so events are collected
+ * for [settleMillis] after the first one and then handed to [onChange] as a single batch.
+ *
+ * A directory that doesn't exist yet is watched for through its parent directory and is registered as soon as it is created;
+ * the files it already holds by then are reported as changed. The same happens when a watched directory is deleted and created again.
+ *
+ * @param directories The directories to watch. A directory whose parent doesn't exist either is skipped.
+ * @param filter Decides whether a changed file is relevant.
+ * @param onChange Called on the watcher thread with every relevant file that changed in the batch.
+ */
+internal class ConfigWatcher(
+    private val name: String,
+    private val directories: Collection<Path>,
+    private val filter: (Path) -> Boolean,
+    private val settleMillis: Long = 100,
+    private val onChange: (Set<Path>) -> Unit,
+) {
+    private val watchService: WatchService = FileSystems.getDefault().newWatchService()
+    private val keys: MutableMap<WatchKey, Path> = mutableMapOf()
+    private val thread = Thread(::run, name).apply { isDaemon = true }
+
+    // Directories that don't exist yet; only touched on the watcher thread once it has started
+    private val missing: MutableSet<Path> = mutableSetOf()
+
+    fun start() {
+        directories.map { it.toAbsolutePath() }.forEach { dir ->
+            if (dir.toFile().isDirectory) register(dir) else waitFor(dir)
+        }
+        thread.start()
+    }
+
+    fun stop() {
+        try {
+            watchService.close()
+        } catch (_: Exception) {
+        }
+        thread.interrupt()
+    }
+
+    private fun run() {
+        try {
+            while (!Thread.currentThread().isInterrupted) {
+                val changed = mutableSetOf<Path>()
+                collect(watchService.take(), changed)
+
+                // Wait until the burst of events is over
+                while (true) {
+                    val next = watchService.poll(settleMillis, TimeUnit.MILLISECONDS) ?: break
+                    collect(next, changed)
+                }
+
+                if (changed.isNotEmpty()) {
+                    try {
+                        onChange(changed)
+                    } catch (e: Exception) {
+                        Logger.warn("$name failed to handle a file change: ${e.message}")
+                    }
+                }
+            }
+        } catch (_: InterruptedException) {
+        } catch (_: ClosedWatchServiceException) {
+        }
+    }
+
+    private fun collect(key: WatchKey, changed: MutableSet<Path>) {
+        val dir = keys[key]
+        for (event in key.pollEvents()) {
+            val context = event.context() as? Path ?: continue
+            val file = dir?.resolve(context) ?: continue
+            if (file in missing && file.toFile().isDirectory) {
+                missing.remove(file)
+                register(file)
+                // Files may have been written before the directory was registered
+                file.toFile().listFiles()?.map { it.toPath() }?.filterTo(changed, filter)
+            }
+            if (filter(file)) changed.add(file)
+        }
+
+        if (!key.reset()) {
+            // The directory was deleted; watch for it to be created again
+            keys.remove(key)
+            dir?.let { waitFor(it) }
+        }
+    }
+
+    private fun register(dir: Path) {
+        if (dir in keys.values) return
+        val key = dir.register(
+            watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE
+        )
+        keys[key] = dir
+    }
+
+    private fun waitFor(dir: Path) {
+        val parent = dir.parent ?: return
+        if (!parent.toFile().isDirectory) return
+        missing.add(dir)
+        register(parent)
+
+        // It may have been created before the parent was registered
+        if (dir.toFile().isDirectory) {
+            missing.remove(dir)
+            register(dir)
+        }
+    }
+}
@@ -8,15 +8,20 @@ import org.yaml.snakeyaml.Yaml
 import java.io.File
 import java.io.InputStream
 import java.io.InputStreamReader
-import java.math.BigDecimal
-import java.math.BigInteger
 import java.net.HttpURLConnection
 import java.net.URI
 import java.nio.charset.StandardCharsets
 import java.nio.file.Files
 import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
 import java.util.Locale
+import java.util.concurrent.Callable
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.io.path.notExists
+import kotlin.reflect.KClass
 
 /**
  * The core class of the SwiftBase.
@@ -105,7 +110,7 @@ class Core internal constructor(
             }
 
             languageManagerInfo?.run {
-                LanguageManager.initialize(textComponentFactory, expectedType)
+                LanguageManager.initialize(textComponentFactory, expectedType, copyComponent)
             }
 
             Companion.logger = logger
@@ -157,6 +162,29 @@ class Core internal constructor(
 
     val yaml = Yaml()
 
+    /**
+     * How many threads [loadLanguageFiles] and [updateLanguageFilesIfNeeded] use to process languages in parallel.
+     */
+    var languageLoadThreads: Int = Runtime.getRuntime().availableProcessors()
+
+    /**
+     * Whether [loadLanguageFiles] only loads the default language and leaves the others until a player uses them.
+     * The default language is the system's language if it is available, otherwise the first available language.
+     * Disabled by default, so every language is loaded up front; set it before [loadLanguageFiles] runs.
+     */
+    var lazyLanguageLoading: Boolean = false
+
+    /**
+     * The most languages kept loaded at once when [lazyLanguageLoading] is enabled, or 0 for no limit.
+     * The least recently used language is unloaded first; the default language is never unloaded.
+     */
+    var maxLoadedLanguages: Int = 0
+
+    /**
+     * Whether [loadLanguageFiles] starts watching the language files and reloads them automatically when they change.
+     */
+    var watchLanguageFiles: Boolean = true
+
     var onCheckUpdate: () -> Unit = {}
     var onAllVersionsRetrieved: (versionCount: Int) -> Unit = {}
     var onNewVersionFound: (latestVersion: String, newerVersionCount: Int) -> Unit = { _, _ -> }
@@ -164,10 +192,107 @@ class Core internal constructor(
     var onUpdateCheckFailed: (responseCode: Int) -> Unit = {}
     var onUpdateCheckError: (e: Exception) -> Unit = {}
 
+    /**
+     * The config that [lc] currently reads from.
+     * It is replaced as a whole whenever the config file is reloaded.
+     */
+    @Volatile
+    var configSnapshot: ConfigSnapshot = ConfigSnapshot.EMPTY
+        private set
+
+    private val configLock = Any()
+    private var configWatcher: ConfigWatcher? = null
+    private val languageLock = Any()
+    private val languageReloadLock = Any()
+    private var languageWatcher: ConfigWatcher? = null
+    private val configBindings = CopyOnWriteArrayList<ConfigBinding<*>>()
+    private val configSubscriptions = CopyOnWriteArrayList<ConfigSubscription>()
+
+    /**
+     * The schema the config is checked against on every load.
+     * Set it before [initializeDirectories] is called (for example in `onLoadPre`).
+     */
+    var configSchema: ConfigSchema? = null
+
+    /**
+     * Whether parsed config files are cached in a binary form in `dataFolder/.cache`.
+     * When enabled, an unchanged config file is loaded from the cache without being parsed.
+     */
+    var useConfigCache: Boolean = true
+
+    private val configCache = ConfigTreeCache(File(dataFolder, ".cache"))
+
+    /**
+     * How long [setConfig] waits before writing the config file, in the unit of the platform executor
+     * (ticks on Paper, milliseconds on Fabric). Changes made during the delay are written together.
+     */
+    var configSaveDelay: Long = 20
+
+    private val configSavePending = AtomicBoolean(false)
+    private val configWriteLock = Any()
+
+    @Volatile
+    private var lastWrittenConfigHash: ByteArray? = null
+
+    /**
+     * The prefix of environment variables and system properties that override config values.
+     * With the default prefix, `SWIFTBASE_MAIN_EXAMPLE` and `-Dswiftbase.main.example` both override `main.example`.
+     * Set it before the config is loaded; the environment is only read once.
+     */
+    var configEnvPrefix: String = "SWIFTBASE"
+
+    /**
+     * Whether environment variables and system properties may override config values.
+     */
+    var useEnvironmentOverrides: Boolean = true
+
+    private val configEnvironment: ConfigEnvironment by lazy { ConfigEnvironment.capture(configEnvPrefix) }
+
+    /**
+     * The directory holding config overlays. Every config file in it (`.yml`, `.json`, `.properties`, see [ConfigFormat])
+     * is merged on top of [configFile], in name order.
+     */
+    val configOverlayDir: File? = configFile?.let { File(it.absoluteFile.parentFile, "config.d") }
+
+    /**
+     * The directory holding config profiles. Every config file in it defines the profile named after the file,
+     * whose values are applied on top of the config when it is read through [configProfile].
+     */
+    val configProfileDir: File? = configFile?.let { File(it.absoluteFile.parentFile, "profiles") }
+
+    private val configLayers: ConfigLayers? by lazy {
+        configFile?.let { ConfigLayers(it, configOverlayDir!!, configProfileDir!!, ::readConfigTree) }
+    }
+
+    /**
+     * The report of the most recent config load, or null if the config has not been loaded yet.
+     */
+    @Volatile
+    var lastConfigReport: ConfigReport? = null
+        private set
+
+    private val bundledConfigDefaults: Map<String, Any?>? by lazy {
+        val resource = bundledConfigResource() ?: return@lazy null
+        helper.getResource(resource)?.use { stream ->
+            InputStreamReader(stream, StandardCharsets.UTF_8).use { reader ->
+                Yaml().load<Map<String, Any?>>(reader)
+            }
+        }
+    }
+
+    /**
+     * Called after a new config snapshot has been published, on the thread that reloaded it.
+     */
+    var onConfigReloaded: (snapshot: ConfigSnapshot) -> Unit = {}
+
     /**
      * Loads a value from the config file.
      * The value will be cast to the type T.
      *
+     * The value is read from the in-memory [configSnapshot], so this never touches the disk
+     * once the config has been loaded. Types decoded by a [ConfigCodec] (durations, patterns, enums, ...)
+     * are decoded once per config generation and the same object is returned until the next reload.
+     *
      * @param key The key of the value.
      * @return The value of the key.
      * @throws IllegalStateException If the config file is not set.
@@ -175,10 +300,259 @@ class Core internal constructor(
     inline fun <reified T> lc(key: String): T? {
         checkNotNull(configFile) { "Config file is not set but you try to load a value from it." }
 
-        val config: Map<String, Any> = Files.newInputStream(configFile.toPath()).use { yaml.load(it) }
+        return getConfig().get<T>(key)
+    }
+
+    /**
+     * Registers the codec used to decode config values of the given type, for [lc], [configKey], bindings and paths.
+     * [java.time.Duration], [java.util.regex.Pattern], [java.util.UUID], [ShortUUID] and enums are supported out of the box.
+     *
+     * @param type The decoded type.
+     * @param codec The codec.
+     */
+    fun <T : Any> registerConfigCodec(type: Class<T>, codec: ConfigCodec<T>) {
+        ConfigConverters.register(type.kotlin, codec)
+    }
 
-        val value = resolveNestedKey(config, key)
-        return parseValue(value)
+    inline fun <reified T : Any> registerConfigCodec(codec: ConfigCodec<T>) {
+        registerConfigCodec(T::class.java, codec)
+    }
+
+    /**
+     * Loads an Int from the config without boxing.
+     *
+     * @param key The key of the value.
+     * @param default Returned when the key is missing or is not an Int.
+     * @return The value of the key.
+     */
+    fun lcInt(key: String, default: Int): Int {
+        return getConfig().getInt(key, default)
+    }
+
+    /**
+     * Loads a Long from the config without boxing.
+     *
+     * @param key The key of the value.
+     * @param default Returned when the key is missing or is not a Long.
+     * @return The value of the key.
+     */
+    fun lcLong(key: String, default: Long): Long {
+        return getConfig().getLong(key, default)
+    }
+
+    /**
+     * Loads a Double from the config without boxing.
+     *
+     * @param key The key of the value.
+     * @param default Returned when the key is missing or is not a number.
+     * @return The value of the key.
+     */
+    fun lcDouble(key: String, default: Double): Double {
+        return getConfig().getDouble(key, default)
+    }
+
+    /**
+     * Loads a Boolean from the config without boxing.
+     *
+     * @param key The key of the value.
+     * @param default Returned when the key is missing or is not a Boolean.
+     * @return The value of the key.
+     */
+    fun lcBoolean(key: String, default: Boolean): Boolean {
+        return getConfig().getBoolean(key, default)
+    }
+
+    /**
+     * Gets the current config snapshot, loading the config file first if it has not been loaded yet.
+     *
+     * @return The current config snapshot.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun getConfig(): ConfigSnapshot {
+        val snapshot = configSnapshot
+        if (snapshot.generation != 0L) return snapshot
+
+        synchronized(configLock) {
+            if (configSnapshot.generation == 0L) reloadConfig()
+            return configSnapshot
+        }
+    }
+
+    /**
+     * Parses every config file again and atomically replaces the current [configSnapshot].
+     *
+     * The config is made of the base [configFile], then every file in [configOverlayDir] in name order,
+     * then the environment overrides (see [configEnvPrefix]), then the runtime overrides set with [setConfigOverride].
+     * Missing values are filled in from the bundled config resource and the tree is checked against [configSchema].
+     * All problems are logged as a single report. If a file can't be parsed or the tree fails validation,
+     * the current snapshot is kept.
+     *
+     * @return The snapshot that is current after the reload.
+     * @throws IllegalStateException If the config file is not set, or if the very first load fails validation.
+     */
+    fun reloadConfig(): ConfigSnapshot {
+        return updateConfig { it.loadAll() }
+    }
+
+    /**
+     * Sets a value in the config file.
+     *
+     * The in-memory config is updated right away. The file itself is written later on the async executor,
+     * after [configSaveDelay]; every change made in the meantime is saved by the same write.
+     * The file is written to a temporary file first and then moved over the config file atomically.
+     * Comments in the config file are not preserved.
+     *
+     * If the file is edited outside before the change is saved, the edit is not overwritten: the file is loaded again,
+     * the values set here that haven't been saved yet are applied on top of it, and the result is saved.
+     * For a key changed in both places, the value set here wins. Reloading the config (by the watcher or
+     * [reloadConfig]) keeps unsaved values the same way.
+     *
+     * @param key The dotted key.
+     * @param value The new value, or null to remove the key.
+     * @return The snapshot that is current after the change.
+     * @throws IllegalStateException If the config file is not set.
+     * @throws IllegalArgumentException If the new value fails validation against [configSchema].
+     */
+    fun setConfig(key: String, value: Any?): ConfigSnapshot {
+        val layers = checkNotNull(configLayers) { "Config file is not set but you try to change it." }
+
+        synchronized(configLock) {
+            getConfig()
+            val previousTree = layers.baseTree
+            val previousPending = layers.pendingBaseValues()
+            val previousGeneration = configSnapshot.generation
+
+            val snapshot = updateConfig { it.setBaseValue(key, value) }
+            if (snapshot.generation == previousGeneration) {
+                layers.restoreBase(previousTree, previousPending)
+                throw IllegalArgumentException("The new value of config key '$key' was rejected: ${lastConfigReport ?: "failed to apply it"}")
+            }
+
+            scheduleConfigSave()
+            return snapshot
+        }
+    }
+
+    /**
+     * Writes pending changes made with [setConfig] to the config file right away, on the calling thread.
+     * Call this before shutting down so no change is lost.
+     */
+    fun flushConfig() {
+        if (configFile == null) return
+        if (configSavePending.getAndSet(false)) writeConfigFile()
+    }
+
+    /**
+     * Sets a value that overrides every config file until it is removed.
+     * Overrides are kept in memory only; no file is parsed or written.
+     *
+     * @param key The dotted key.
+     * @param value The value.
+     * @return The snapshot that is current after the change.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun setConfigOverride(key: String, value: Any?): ConfigSnapshot {
+        return updateConfig { ConfigTrees.set(it.overrides, key, value) }
+    }
+
+    /**
+     * Removes a value set with [setConfigOverride].
+     *
+     * @param key The dotted key.
+     * @return The snapshot that is current after the change.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun removeConfigOverride(key: String): ConfigSnapshot {
+        return updateConfig { ConfigTrees.remove(it.overrides, key) }
+    }
+
+    /**
+     * Gets a config profile, like the settings for a single world or player group.
+     *
+     * A profile is the config with the profile's overlay applied on top: the file `profiles/<name>.yml`
+     * and the values given to [defineConfigProfile], the latter winning. Only the keys an overlay changes are stored
+     * for it; everything else is shared with the base config, and every key of the profile is indexed when
+     * the config is loaded, so reading from a profile costs the same as reading from the base config.
+     *
+     * ```kotlin
+     * val radius = CB.configProfile(world.name).getInt("spawn.radius", 16)
+     * ```
+     *
+     * @param name The name of the profile.
+     * @return The profile from the current config snapshot, or the base config if there is no profile with that name.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun configProfile(name: String): ConfigSnapshot = getConfig().profile(name)
+
+    /**
+     * Defines (or replaces) a profile overlay in code. It is merged on top of `profiles/<name>.yml` if that file exists,
+     * and is kept in memory only.
+     *
+     * @param name The name of the profile.
+     * @param overlay The values that differ from the base config, as a nested tree.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun defineConfigProfile(name: String, overlay: Map<String, Any?>) {
+        val layers = checkNotNull(configLayers) { "Config file is not set but you try to change it." }
+
+        synchronized(configLock) {
+            layers.profileOverrides[name] = ConfigTrees.mutableCopyOf(overlay)
+            if (configSnapshot.generation != 0L) updateConfig {}
+        }
+    }
+
+    /**
+     * Removes a profile overlay defined with [defineConfigProfile].
+     *
+     * @param name The name of the profile.
+     * @return Whether there was an overlay to remove.
+     */
+    fun removeConfigProfile(name: String): Boolean {
+        val layers = configLayers ?: return false
+
+        synchronized(configLock) {
+            if (layers.profileOverrides.remove(name) == null) return false
+            if (configSnapshot.generation != 0L) updateConfig {}
+            return true
+        }
+    }
+
+    /**
+     * Starts watching the config files and reloads them automatically whenever they change.
+     * Only the files that changed are parsed again.
+     * Calling this method more than once has no effect.
+     */
+    fun startConfigWatcher() {
+        val layers = configLayers ?: return
+
+        synchronized(configLock) {
+            if (configWatcher != null) return
+            configWatcher = ConfigWatcher(
+                "SwiftBase-ConfigWatcher",
+                listOf(layers.baseFile.parentFile, layers.overlayDirectory, layers.profileDirectory).map { it.toPath() }.distinct(),
+                { layers.isLayerFile(it.toFile()) },
+            ) { paths ->
+                // Our own writes don't need to be parsed again
+                val changed = paths.map { it.toFile().absoluteFile }.filterNot { it == layers.baseFile && isLastWrittenConfig(it) }
+                if (changed.isEmpty()) return@ConfigWatcher
+
+                logger.info("Config files changed, reloading: ${changed.joinToString(", ") { it.name }}")
+                changed.forEach(configCache::invalidate)
+                updateConfig { it.reload(changed) }
+                // Unsaved setConfig values were applied on top of the edited file; save the result
+                if (layers.baseFile in changed && synchronized(configLock) { layers.hasPendingBaseValues() }) scheduleConfigSave()
+            }.also { it.start() }
+        }
+    }
+
+    /**
+     * Stops watching the config file.
+     */
+    fun stopConfigWatcher() {
+        synchronized(configLock) {
+            configWatcher?.stop()
+            configWatcher = null
+        }
     }
 
     fun resolveNestedKey(config: Map<String, Any>, key: String): Any? {
@@ -196,39 +570,190 @@ class Core internal constructor(
     }
 
     inline fun <reified T> parseValue(value: Any?): T? {
-        return when (T::class) {
-            String::class -> value as? T
-            Int::class -> value?.toString()?.toIntOrNull() as? T
-            Boolean::class -> value?.toString()?.toBooleanOrNull() as? T
-            Double::class -> value?.toString()?.toDoubleOrNull() as? T
-            Short::class -> value?.toString()?.toShortOrNull() as? T
-            Long::class -> value?.toString()?.toLongOrNull() as? T
-            Float::class -> value?.toString()?.toFloatOrNull() as? T
+        @Suppress("UNCHECKED_CAST")
+        return ConfigConverters.forType(T::class as KClass<Any>)(value) as? T
+    }
+
+    /**
+     * Creates a precompiled handle for a config value.
+     * The key is split and the converter is chosen once; reading the handle afterward
+     * only costs a field load until the config is reloaded.
+     *
+     * @param key The dotted key of the value.
+     * @return The handle.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    inline fun <reified T : Any> configKey(key: String): ConfigKey<T> {
+        return configKey(key, T::class.java)
+    }
+
+    /**
+     * Creates a handle whose value is derived from a config value once per config generation.
+     * Use it for anything expensive to build from the raw value, like lookup tables.
+     *
+     * @param key The dotted key of the value.
+     * @param converter Builds the derived value from the raw config value (which may be null).
+     * @return The handle.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun <T : Any> configKey(key: String, converter: (Any?) -> T?): ConfigKey<T> {
+        checkNotNull(configFile) { "Config file is not set but you try to create a key for it." }
+        return ConfigKey(this, key, converter)
+    }
+
+    /**
+     * Creates a handle to a config list indexed as a [HashSet] of strings, rebuilt once per config generation.
+     * A missing key yields an empty set.
+     *
+     * @param key The dotted key of the list.
+     * @return The handle. Its value is never null.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun configSet(key: String): ConfigKey<Set<String>> {
+        return configKey(key) { value -> (value as? List<*>)?.mapNotNullTo(HashSet()) { it?.toString() } ?: emptySet() }
+    }
 
-            // There is a special type! :D
-            Byte::class -> value?.toString()?.toByteOrNull() as? T
-            Char::class -> (value as? String)?.singleOrNull() as? T
-            List::class -> value as? List<*> as? T
-            Array::class -> (value as? List<*>)?.toTypedArray() as? T
-            Map::class -> value as? Map<*, *> as? T
-            BigInteger::class -> (value?.toString())?.let { BigInteger(it) } as? T
-            BigDecimal::class -> (value?.toString())?.let { BigDecimal(it) } as? T
-            else -> value as? T
+    /**
+     * Creates a handle to a config list indexed as a prefix tree, rebuilt once per config generation.
+     * A missing key yields an empty index.
+     *
+     * @param key The dotted key of the list.
+     * @param ignoreCase Whether checks are case-insensitive.
+     * @return The handle. Its value is never null.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun configPrefixIndex(key: String, ignoreCase: Boolean = false): ConfigKey<ConfigPrefixIndex> {
+        return configKey(key) { value ->
+            ConfigPrefixIndex((value as? List<*>)?.mapNotNull { it?.toString() } ?: emptyList(), ignoreCase)
         }
     }
 
+    /**
+     * Creates a handle to a config list indexed as a primitive Int set, rebuilt once per config generation.
+     * Elements that aren't Ints are skipped and a missing key yields an empty set.
+     *
+     * @param key The dotted key of the list.
+     * @return The handle. Its value is never null.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun configIntSet(key: String): ConfigKey<ConfigIntSet> {
+        val toInt = ConfigConverters.forType(Int::class)
+        return configKey(key) { value -> ConfigIntSet((value as? List<*>)?.mapNotNull { toInt(it) } ?: emptyList()) }
+    }
+
+    /**
+     * Compiles a path expression like `rewards[*].id` or `regions[name=spawn].radius`.
+     * The expression is parsed once and its result is cached until the config is reloaded.
+     *
+     * @param expression The path expression. See [ConfigPath] for the syntax.
+     * @return The compiled path.
+     * @throws IllegalStateException If the config file is not set.
+     * @throws IllegalArgumentException If the expression is invalid.
+     */
+    inline fun <reified T : Any> configPath(expression: String): ConfigPath<T> {
+        return configPath(expression, T::class.java)
+    }
+
+    /**
+     * Compiles a path expression like `rewards[*].id` or `regions[name=spawn].radius`.
+     *
+     * @param expression The path expression. See [ConfigPath] for the syntax.
+     * @param type The type matching values are converted to.
+     * @return The compiled path.
+     * @throws IllegalStateException If the config file is not set.
+     * @throws IllegalArgumentException If the expression is invalid.
+     */
+    fun <T : Any> configPath(expression: String, type: Class<T>): ConfigPath<T> {
+        checkNotNull(configFile) { "Config file is not set but you try to create a path for it." }
+        return ConfigPath(this, expression, ConfigConverters.forType(type.kotlin))
+    }
+
+    /**
+     * Creates a precompiled handle for a key declared in [configSchema].
+     * Once the config has loaded successfully, [ConfigKey.require] never fails for such a key.
+     *
+     * @param entry The schema entry.
+     * @return The handle.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun <T : Any> configKey(entry: ConfigSchema.Entry<T>): ConfigKey<T> {
+        return configKey(entry.key, entry.type.java)
+    }
+
+    /**
+     * Creates a precompiled handle for a config value.
+     *
+     * @param key The dotted key of the value.
+     * @param type The type the value will be converted to.
+     * @return The handle.
+     * @throws IllegalStateException If the config file is not set.
+     */
+    fun <T : Any> configKey(key: String, type: Class<T>): ConfigKey<T> {
+        checkNotNull(configFile) { "Config file is not set but you try to create a key for it." }
+        return ConfigKey(this, key, ConfigConverters.forType(type.kotlin))
+    }
+
+    /**
+     * Registers a listener that is notified when a reload changes anything under [prefix].
+     *
+     * On every reload the old and new config trees are compared once, and only listeners whose subtree changed are called.
+     * Listeners run on the thread that reloaded the config, after [ConfigBinding]s have been updated.
+     *
+     * @param prefix The dotted key prefix to listen to, like `rewards`. An empty prefix listens to every change.
+     * @param listener Called with the details of the change.
+     * @return The subscription; call [ConfigSubscription.cancel] to remove the listener.
+     */
+    fun onConfigChange(prefix: String, listener: (ConfigChange) -> Unit): ConfigSubscription {
+        val subscription = ConfigSubscription(prefix, listener) { configSubscriptions.remove(it) }
+        configSubscriptions.add(subscription)
+        return subscription
+    }
+
+    /**
+     * Binds a config section into an instance of a data class or record.
+     * The instance is built once now and rebuilt every time the config is reloaded,
+     * so reading values from it is plain field access.
+     *
+     * @param path The dotted path of the section to bind. Binds the whole config if empty.
+     * @return The binding holding the current instance.
+     * @throws IllegalStateException If the config file is not set or the section can't be bound.
+     */
+    inline fun <reified T : Any> bindConfig(path: String = ""): ConfigBinding<T> {
+        return bindConfig(T::class.java, path)
+    }
+
+    /**
+     * Binds a config section into an instance of a data class or record.
+     *
+     * @param type The class to bind into.
+     * @param path The dotted path of the section to bind. Binds the whole config if empty.
+     * @return The binding holding the current instance.
+     * @throws IllegalStateException If the config file is not set or the section can't be bound.
+     */
+    fun <T : Any> bindConfig(type: Class<T>, path: String = ""): ConfigBinding<T> {
+        checkNotNull(configFile) { "Config file is not set but you try to bind it." }
+
+        val binding = ConfigBinding(type, path, ConfigBinder.of(type))
+        binding.bind(getConfig())
+        configBindings.add(binding)
+        return binding
+    }
+
     /**
      * Initializes the directories.
      *
      * This method should be called after Core initialization.
      *
-     * It creates the necessary directories if they don't exist
+     * It creates the necessary directories if they don't exist,
+     * loads the config file and starts watching it for changes.
      */
     fun initializeDirectories() {
         if (dataFolder.notExists()) dataFolder.mkdirs()
 
         if (configFile != null) {
             createConfigIfNotExists()
+            reloadConfig()
+            startConfigWatcher()
         }
 
         if (!availableLang.isNullOrEmpty() && langDir != null) {
@@ -240,7 +765,8 @@ class Core internal constructor(
      * Updates the language files if needed.
      */
     fun updateLanguageFilesIfNeeded() {
-        availableLang?.forEach { lang ->
+        val languages = availableLang ?: return
+        forEachLanguage(languages) { lang ->
             val langFile = File(langDir, "$lang.yml")
             val langResource = "$langResourceRoot/$lang.yml"
 
@@ -296,34 +822,348 @@ class Core internal constructor(
      * Loads the language files.
      * This function detects subclasses of platform-specific MessageKey subclasses contained within packageName
      * and automatically maps them to YAML.
+     *
+     * With [lazyLanguageLoading], only the default language is loaded here. The others are loaded on the async executor
+     * when a lookup first needs them, and the lookup falls back along the locale's chain until they are published.
+     * The default language is also the last fallback for players whose language has no message.
      */
     fun loadLanguageFiles() {
         if (!availableLang.isNullOrEmpty()) {
-            availableLang.forEach { lang ->
-                requireNotNull(langDir) { "Available languages are set but langDir is null." }
-
-                val langFile = langDir.resolve("$lang.yml")
-                if (Files.exists(langFile.toPath())) {
-                    Files.newBufferedReader(langFile.toPath(), StandardCharsets.UTF_8).use { reader ->
-                        val data: Map<String, Any> = yaml.load(reader)
-                        LMB.processYamlAndMapMessageKeys(data, lang)
-                    }
-                } else {
-                    Logger.warn("Language file for '$lang' not found.")
-                }
+            requireNotNull(langDir) { "Available languages are set but langDir is null." }
+
+            val defaultLang = Locale.getDefault().language.takeIf { it in availableLang } ?: availableLang.first()
+            LMB.fallbackLanguage = defaultLang
+
+            val languages = if (lazyLanguageLoading) {
+                LMB.pinnedLanguages.add(defaultLang)
+                LMB.maxLoadedLanguages = maxLoadedLanguages
+                LMB.languageLoader = { lang -> if (lang in availableLang) readLanguageFile(lang) else null }
+                LMB.languageLoadExecutor = { task -> executor.executeAsync(task) }
+                LMB.registerLanguages(availableLang)
+                listOf(defaultLang)
+            } else {
+                LMB.languageLoader = null
+                availableLang
             }
+
+            LMB.publishMessages(forEachLanguage(languages) { lang -> readLanguageFile(lang) })
+            if (watchLanguageFiles) startLanguageWatcher()
         } else {
             Logger.warn("No languages are available. Aborting language file loading process.")
         }
     }
 
+    /**
+     * Reloads language files without a restart.
+     *
+     * The files are parsed on the language loader threads and every reloaded language is published in a single step,
+     * so lookups running at the same time see either the old or the new messages, never a mix.
+     * A file that can't be read keeps the messages it had before.
+     * With [lazyLanguageLoading], only the languages that are loaded are read again; the others are read when first used.
+     * Reloads run one at a time, so an older read never replaces the messages of a newer one.
+     *
+     * @param languages The languages to reload. Defaults to every available language.
+     */
+    fun reloadLanguageFiles(languages: Collection<String> = availableLang.orEmpty()) {
+        val available = availableLang ?: return
+        val requested = languages.filter { it in available }
+        if (requested.isEmpty()) return
+
+        synchronized(languageReloadLock) {
+            // A language that had no file may have one now
+            LMB.forgetUnavailableLanguages(requested)
+            val targets = if (lazyLanguageLoading) {
+                val loaded = LMB.loadedLanguages()
+                requested.filter { it in loaded }
+            } else {
+                requested
+            }
+
+            val reloaded = forEachLanguage(targets) { lang -> readLanguageFile(lang) }
+            LMB.publishMessages(reloaded)
+            logger.info("Reloaded language files: ${reloaded.keys.joinToString(", ")}")
+        }
+    }
+
+    /**
+     * Reloads language files like [reloadLanguageFiles], on the executor's async thread, so the caller doesn't wait.
+     */
+    fun reloadLanguageFilesAsync(languages: Collection<String> = availableLang.orEmpty()) {
+        executor.executeAsync { reloadLanguageFiles(languages) }
+    }
+
+    /**
+     * Starts watching the language directory and reloads the language files that change.
+     * Only the files of [availableLang] are reloaded; the list is checked again on every change.
+     * Calling this method more than once has no effect.
+     */
+    fun startLanguageWatcher() {
+        val dir = langDir ?: return
+        if (availableLang == null) return
+
+        synchronized(languageLock) {
+            if (languageWatcher != null) return
+            languageWatcher = ConfigWatcher(
+                "SwiftBase-LanguageWatcher",
+                listOf(dir.toPath()),
+                { it.toFile().extension == "yml" && it.toFile().nameWithoutExtension in availableLang.orEmpty() },
+            ) { paths ->
+                val changed = paths.map { it.toFile().nameWithoutExtension }
+                logger.info("Language files changed, reloading: ${changed.joinToString(", ")}")
+                reloadLanguageFiles(changed)
+            }.also { it.start() }
+        }
+    }
+
+    /**
+     * Stops watching the language files.
+     */
+    fun stopLanguageWatcher() {
+        synchronized(languageLock) {
+            languageWatcher?.stop()
+            languageWatcher = null
+        }
+    }
+
     // Private helper functions
+    private fun readLanguageFile(lang: String): Map<out MessageKey<*, *>, String>? {
+        val langFile = langDir!!.resolve("$lang.yml")
+        if (!Files.exists(langFile.toPath())) {
+            Logger.warn("Language file for '$lang' not found.")
+            return null
+        }
+
+        return Files.newBufferedReader(langFile.toPath(), StandardCharsets.UTF_8).use { reader ->
+            // Yaml is not thread-safe, so every language gets its own instance
+            val data: Map<String, Any> = Yaml().load(reader)
+            LMB.buildMessageMap(data, lang)
+        }
+    }
+
+    /**
+     * Runs [task] for every language on a bounded pool of [languageLoadThreads] threads and waits for all of them.
+     * A language whose task fails is logged and left out of the result.
+     *
+     * @return The non-null results by language.
+     */
+    private fun <T : Any> forEachLanguage(languages: List<String>, task: (String) -> T?): Map<String, T> {
+        val threads = languageLoadThreads.coerceIn(1, languages.size.coerceAtLeast(1))
+        if (threads == 1) {
+            return languages.mapNotNull { lang -> runLanguageTask(lang, task)?.let { lang to it } }.toMap()
+        }
+
+        val counter = AtomicInteger()
+        val pool = Executors.newFixedThreadPool(threads) { runnable ->
+            Thread(runnable, "SwiftBase-LanguageLoader-${counter.incrementAndGet()}").apply { isDaemon = true }
+        }
+        try {
+            val futures = languages.associateWith { lang -> pool.submit(Callable { runLanguageTask(lang, task) }) }
+            return futures.mapNotNull { (lang, future) -> future.get()?.let { lang to it } }.toMap()
+        } finally {
+            pool.shutdown()
+        }
+    }
+
+    private fun <T : Any> runLanguageTask(lang: String, task: (String) -> T?): T? {
+        return try {
+            task(lang)
+        } catch (e: Exception) {
+            logger.error("Failed to process the language file for '$lang': ${e.message}")
+            null
+        }
+    }
+
     private fun createConfigIfNotExists() {
-        val defaultConfigLang = Locale.getDefault().language
-        val configResource = "$configResourceRoot/${defaultConfigLang}.yml"
+        val configResource = bundledConfigResource() ?: return
         helper.getResource(configResource)?.use { inputStream ->
-            val targetConfigFile = File(dataFolder, "config.yml")
-            if (!targetConfigFile.exists()) Files.copy(inputStream, targetConfigFile.toPath())
+            val targetConfigFile = configFile ?: File(dataFolder, "config.yml")
+            if (!targetConfigFile.exists()) {
+                targetConfigFile.parentFile?.mkdirs()
+                val format = ConfigFormat.forFile(targetConfigFile)
+                if (format == ConfigFormat.YAML) {
+                    Files.copy(inputStream, targetConfigFile.toPath())
+                } else {
+                    // The bundled config is always YAML; convert it for configs kept in another format
+                    Files.write(targetConfigFile.toPath(), format.write(ConfigFormat.YAML.parse(inputStream.readBytes())))
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the bundled config for the system language, falling back to English.
+     */
+    private fun bundledConfigResource(): String? {
+        return listOf(Locale.getDefault().language, "en")
+            .distinct()
+            .map { "$configResourceRoot/$it.yml" }
+            .firstOrNull { resource -> helper.getResource(resource)?.use { true } ?: false }
+    }
+
+    private fun updateConfig(action: (ConfigLayers) -> Unit): ConfigSnapshot {
+        val layers = checkNotNull(configLayers) { "Config file is not set but you try to load it." }
+        val name = layers.baseFile.name
+
+        synchronized(configLock) {
+            val report = ConfigReport(name)
+            val (root, profiles) = try {
+                action(layers)
+                val root = buildConfigTree(layers, report)
+                // Profiles go through the same checks as the base config; their issues end up in the same report
+                val profiles = layers.profiles().mapValues { (profile, overlay) ->
+                    val profileReport = ConfigReport(name)
+                    buildConfigTree(layers, profileReport, overlay).also { report.include(profileReport, "profile '$profile'") }
+                }
+                root to profiles
+            } catch (e: Exception) {
+                logger.error("Failed to load config file '$name': ${e.message}")
+                if (configSnapshot.generation != 0L) return configSnapshot
+                mutableMapOf<String, Any?>() to emptyMap()
+            }
+
+            lastConfigReport = report
+            if (report.hasErrors) {
+                if (configSnapshot.generation == 0L) throw IllegalStateException(report.toString())
+                logger.error("$report\nKeeping the previous config.")
+                return configSnapshot
+            } else if (report.issues.any { it.severity == ConfigReport.Severity.WARN }) {
+                logger.warn(report.toString())
+            } else if (!report.isEmpty()) {
+                logger.info(report.toString())
+            }
+
+            val previous = configSnapshot
+            val snapshot = ConfigSnapshot.of(root, previous.generation + 1, profiles)
+            configSnapshot = snapshot
+            Logger.logIfDebug("Config snapshot #${snapshot.generation} published from '$name'")
+            configBindings.forEach { it.rebind(snapshot) }
+            if (previous.generation != 0L) notifyConfigSubscriptions(previous, snapshot)
+            onConfigReloaded(snapshot)
+            return snapshot
+        }
+    }
+
+    private fun scheduleConfigSave() {
+        if (!configSavePending.compareAndSet(false, true)) return
+
+        executor.executeAsyncLater(Runnable {
+            if (configSavePending.getAndSet(false)) writeConfigFile()
+        }, configSaveDelay)
+    }
+
+    private fun writeConfigFile() {
+        val layers = configLayers ?: return
+
+        synchronized(configWriteLock) {
+            val baseFile = layers.baseFile
+            val target = baseFile.toPath()
+
+            if (!isCurrentBaseFile(layers)) {
+                // Edited outside since it was last parsed or written, maybe before the watcher has reloaded it.
+                // Load the edit first; the unsaved setConfig values are applied on top of it again.
+                logger.warn("Config file '${target.fileName}' was edited before the changes made with setConfig were saved; merging them into the edited file.")
+                configCache.invalidate(baseFile)
+                updateConfig { it.reload(listOf(baseFile)) }
+                if (!isCurrentBaseFile(layers)) {
+                    logger.error("Config file '${target.fileName}' could not be loaded; keeping the edited file. The changes made with setConfig are saved once it loads.")
+                    return
+                }
+            }
+
+            // The base tree is changed under configLock by setConfig and reloads, so write a copy taken under it
+            val (tree, fileHash, version) = synchronized(configLock) {
+                Triple(ConfigTrees.mutableCopyOf(layers.baseTree), layers.baseFileHash, layers.pendingBaseVersion)
+            }
+            val bytes = ConfigFormat.forFile(baseFile).write(tree)
+            val writtenHash = MessageDigest.getInstance("SHA-256").digest(bytes)
+
+            try {
+                val temp = Files.createTempFile(target.parent, target.fileName.toString(), ".tmp")
+                try {
+                    Files.write(temp, bytes)
+                    if (!ConfigLayers.hashOf(baseFile).contentEquals(fileHash)) {
+                        logger.warn("Config file '${target.fileName}' was changed while saving it; saving again after it has been loaded.")
+                        scheduleConfigSave()
+                        return
+                    }
+                    lastWrittenConfigHash = writtenHash
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+                } finally {
+                    Files.deleteIfExists(temp)
+                }
+                configCache.invalidate(baseFile)
+                synchronized(configLock) { layers.markBaseWritten(writtenHash, version) }
+                Logger.logIfDebug("Saved config file '${target.fileName}'")
+            } catch (e: Exception) {
+                logger.error("Failed to save config file '${target.fileName}': ${e.message}")
+            }
+        }
+    }
+
+    private fun isLastWrittenConfig(file: File): Boolean {
+        val hash = lastWrittenConfigHash ?: return false
+        return ConfigLayers.hashOf(file)?.contentEquals(hash) ?: false
+    }
+
+    /**
+     * Whether the base file on disk is the one that was last parsed or written.
+     */
+    private fun isCurrentBaseFile(layers: ConfigLayers): Boolean {
+        val expected = synchronized(configLock) { layers.baseFileHash }
+        return ConfigLayers.hashOf(layers.baseFile).contentEquals(expected)
+    }
+
+    private fun notifyConfigSubscriptions(previous: ConfigSnapshot, snapshot: ConfigSnapshot) {
+        if (configSubscriptions.isEmpty()) return
+
+        val changed = ConfigTrees.diff(previous.root, snapshot.root)
+        if (changed.isEmpty()) return
+        Logger.logIfDebug("Config keys changed: ${changed.joinToString(", ")}")
+
+        configSubscriptions.forEach { subscription ->
+            val relevant = changed.filterTo(LinkedHashSet()) { subscription.matches(it) }
+            if (relevant.isNotEmpty()) {
+                subscription.notify(ConfigChange(subscription.prefix, relevant, previous, snapshot))
+            }
+        }
+    }
+
+    /**
+     * Builds the config tree from the merged files, the environment overrides, the runtime overrides and, for a profile,
+     * its overlay, then fills in the bundled defaults and checks it against the schema.
+     *
+     * @param profileOverlay The overlay of the profile to build, or null for the base config.
+     */
+    private fun buildConfigTree(layers: ConfigLayers, report: ConfigReport, profileOverlay: Map<String, Any?>? = null): MutableMap<String, Any?> {
+        // The merged tree is frozen; the steps below copy only the sections they change
+        val tree = LinkedHashMap(layers.merged)
+        if (useEnvironmentOverrides) {
+            configEnvironment.applyTo(tree, configSchema?.entries?.map { it.key } ?: emptyList())
+        }
+        ConfigTrees.mergeInto(tree, layers.overrides)
+        profileOverlay?.let { ConfigTrees.mergeInto(tree, it) }
+
+        bundledConfigDefaults?.let { defaults ->
+            val added = mutableListOf<String>()
+            ConfigTrees.fillMissing(tree, defaults, added = added)
+            added.forEach { report.info(it, "is missing, using the bundled default") }
+        }
+
+        val dotted = mutableListOf<String>()
+        ConfigTrees.removeDottedKeys(tree, dotted)
+        dotted.forEach { report.warn(it, "contains '.', which separates the parts of a key, so it is ignored") }
+
+        configSchema?.apply(tree, report)
+        return tree
+    }
+
+    private fun readConfigTree(file: File): Map<String, Any?> {
+        if (!file.exists()) return emptyMap()
+
+        return if (useConfigCache) {
+            configCache.load(file, ConfigFormat.forFile(file)::parse)
+        } else {
+            ConfigFormat.forFile(file).parse(Files.readAllBytes(file.toPath()))
         }
     }
 
@@ -338,7 +1178,8 @@ class Core internal constructor(
 
     private fun readLangVersion(stream: InputStream): String {
         return InputStreamReader(stream, StandardCharsets.UTF_8).use { reader ->
-            val langData: Map<String, Any> = yaml.load(reader)
+            // Called from the language loader threads, and Yaml is not thread-safe
+            val langData: Map<String, Any> = Yaml().load(reader) ?: emptyMap()
             langData["langVersion"]?.toString() ?: "0"
         }
     }
@@ -3,6 +3,13 @@ package net.rk4z.s1.swiftbase.core
 interface IPlayer<C> {
     fun getLanguage(): String
 
+    /**
+     * Gets the player's full client locale, like `pt_BR`.
+     * Messages are looked up through its fallback chain (see [LanguageManager.getFallbackChain]).
+     * Defaults to [getLanguage] for players that only know their language.
+     */
+    fun getLocale(): String = getLanguage()
+
     fun getMessage(key: MessageKey<*, *>, vararg args: Any): C
 
     fun getRawMessage(key: MessageKey<*, *>): String
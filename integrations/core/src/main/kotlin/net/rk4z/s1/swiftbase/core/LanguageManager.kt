@@ -6,6 +6,9 @@ import org.reflections.scanners.Scanners
 import org.reflections.util.ClasspathHelper
 import org.reflections.util.ConfigurationBuilder
 import java.util.Locale
+import java.util.ServiceLoader
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
 import kotlin.reflect.KClass
 import kotlin.reflect.full.createInstance
 import kotlin.reflect.full.isSubclassOf
@@ -13,7 +16,8 @@ import kotlin.reflect.full.isSubclassOf
 @Suppress("UNCHECKED_CAST")
 open class LanguageManager<P : IPlayer<C>, C> private constructor(
     val textComponentFactory: (String) -> C,
-    val expectedMKType: KClass<out MessageKey<*, *>>
+    val expectedMKType: KClass<out MessageKey<*, *>>,
+    private val copyComponent: ((C) -> C)? = null,
 ) {
     companion object {
         var instance: LanguageManager<*, *> = LanguageManager<IPlayer<Nothing>, Nothing>(
@@ -28,18 +32,21 @@ open class LanguageManager<P : IPlayer<C>, C> private constructor(
          *
          * @param textComponentFactory The factory to create a new text component.
          * @param expectedType The expected type of the message key.
+         * @param copyComponent Copies a component, for platforms whose components are mutable.
+         * Cached components are copied before they are returned, so callers can't change them for everyone else.
          * @return The created language manager.
          * @throws IllegalStateException If the language manager is already created by [Core].
          */
         fun <P : IPlayer<C>, C> initialize(
             textComponentFactory: (String) -> C,
-            expectedType: KClass<out MessageKey<P, C>>
+            expectedType: KClass<out MessageKey<P, C>>,
+            copyComponent: ((C) -> C)? = null,
         ): LanguageManager<P, C> {
             if (Core.isInitialized()) {
                 throw IllegalStateException("LanguageManager already created by Core.")
             }
 
-            val languageManager: LanguageManager<P, C> = LanguageManager(textComponentFactory, expectedType)
+            val languageManager: LanguageManager<P, C> = LanguageManager(textComponentFactory, expectedType, copyComponent)
 
             instance = languageManager
 
@@ -57,14 +64,107 @@ open class LanguageManager<P : IPlayer<C>, C> private constructor(
         }
     }
 
-    val messages: MutableMap<String, MutableMap<MessageKey<P, C>, String>> = mutableMapOf()
+    /**
+     * The loaded messages, replaced as a whole on every publish.
+     */
+    @Volatile
+    private var table = MessageTable.EMPTY
+
+    private val publishLock = Any()
+
+    // Locale ids and key ordinals are never reused, so ids handed out earlier stay valid across reloads
+    private val localeIds = ConcurrentHashMap<String, Int>()
+    private val localeNames = CopyOnWriteArrayList<String>()
+    private val keysByOrdinal = ArrayList<MessageKey<*, *>?>()
+    private var nextOrdinal = 0
+
+    private val keyOrdinals = object : ClassValue<Int>() {
+        override fun computeValue(type: Class<*>): Int = synchronized(keysByOrdinal) { nextOrdinal++ }
+    }
+
+    private val keyComponents = ConcurrentHashMap<Class<*>, C & Any>()
+
+    private val keyTypeChecks = object : ClassValue<Boolean>() {
+        override fun computeValue(type: Class<*>): Boolean = expectedMKType.java.isAssignableFrom(type)
+    }
+
+    /**
+     * Loads a language that is not loaded yet, the first time a lookup needs it.
+     * It returns the messages as built by [buildMessageMap], or null if the language doesn't exist.
+     * When it is null, only published languages are available.
+     *
+     * [Core.loadLanguageFiles] sets it when [Core.lazyLanguageLoading] is enabled.
+     */
+    @Volatile
+    var languageLoader: ((String) -> Map<out MessageKey<*, *>, String>?)? = null
+
+    /**
+     * Runs the [languageLoader] off the calling thread. Lookups never wait for a language to load;
+     * until it is published they fall back to the next language of the locale's chain.
+     * When it is null, languages are loaded on the thread that needs them.
+     *
+     * [Core.loadLanguageFiles] sets it to the platform executor's async executor.
+     */
+    @Volatile
+    var languageLoadExecutor: ((Runnable) -> Unit)? = null
+
+    /**
+     * The most languages kept loaded at once when languages are loaded on demand, or 0 for no limit.
+     * Loading a language beyond the limit unloads the one that was used least recently; it is loaded again when needed.
+     */
+    @Volatile
+    var maxLoadedLanguages: Int = 0
+
+    /**
+     * Languages that are never unloaded, like the default language.
+     */
+    val pinnedLanguages: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    /**
+     * The language every fallback chain ends with, used when none of a locale's own languages has a message.
+     * [Core.loadLanguageFiles] sets it to the default language.
+     */
+    var fallbackLanguage: String = "en"
+        set(value) {
+            field = value
+            clearLocaleChains()
+        }
+
+    // Fallback chains by client locale, as locale ids; cleared whenever a new language is published
+    private val localeChains = ConcurrentHashMap<String, IntArray>()
+    @Volatile
+    private var chainVersion = 0
+
+    private val pendingLoads: MutableSet<String> = ConcurrentHashMap.newKeySet()
+    private val unavailableLanguages: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    // The load count when each locale was last used, by locale id; racy updates only make eviction slightly less exact
+    @Volatile
+    private var lastUsed = IntArray(0)
+    @Volatile
+    private var loadClock = 0
+
+    /**
+     * The messages of every loaded language.
+     * The whole map is replaced when languages are (re)loaded, so readers always see a complete set of languages.
+     *
+     * Messages are stored by locale id and key ordinal; this view is built from them on first use after every publish.
+     * Prefer [getRawMessage] and [hasMessage] for single lookups.
+     */
+    val messages: Map<String, Map<MessageKey<P, C>, String>>
+        get() = table.messages as Map<String, Map<MessageKey<P, C>, String>>
+
+    /**
+     * Every message key of the plugin by its normalized path.
+     * It is built once, from the generated [MessageKeyRegistry] if there is one, otherwise by scanning the classpath.
+     */
+    private val messageKeyMap: Map<String, MessageKey<P, C>> by lazy {
+        loadRegisteredMessageKeys() ?: mutableMapOf<String, MessageKey<P, C>>().also { scanForMessageKeys(it) }
+    }
 
     fun findMissingKeys(lang: String) {
         Logger.logIfDebug("Starting findMissingKeysForLanguage for language: $lang")
 
-        val messageKeyMap: MutableMap<String, MessageKey<P, C>> = mutableMapOf()
-        scanForMessageKeys(messageKeyMap)
-
         val yamlData = messages[lang]
         if (yamlData == null) {
             Logger.logIfDebug("No YAML data found for language: $lang")
@@ -90,25 +190,344 @@ open class LanguageManager<P : IPlayer<C>, C> private constructor(
         data: Map<String, Any>,
         lang: String = "en"
     ) {
+        publishMessages(mapOf(lang to buildMessageMap(data, lang)))
+    }
+
+    /**
+     * Maps the parsed YAML of a language file to the message keys, without publishing the result.
+     * It only reads shared state, so the maps of several languages can be built in parallel.
+     *
+     * @param data The parsed language file.
+     * @param lang The language the file belongs to.
+     * @return The messages of the language.
+     */
+    fun buildMessageMap(data: Map<String, Any>, lang: String): Map<MessageKey<P, C>, String> {
         Logger.logIfDebug("Starting to process YAML and map message keys for language: $lang")
 
-        val messageKeyMap: MutableMap<String, MessageKey<P, C>> = mutableMapOf()
         val messageMap: MutableMap<MessageKey<P, C>, String> = mutableMapOf()
 
-        // クラス構造に基づいてメッセージキーを探索
-        scanForMessageKeys(messageKeyMap)
         Logger.logIfDebug("MessageKey map generated with ${messageKeyMap.size} keys for language: $lang")
 
         // YAMLデータをマッピング
         processYamlData("", data, messageKeyMap, messageMap)
         Logger.logIfDebug("YAML data processed for language: $lang with ${messageMap.size} entries")
 
-        // messagesにマップを格納
-        messages[lang] = messageMap
-        Logger.logIfDebug("Message map stored for language: $lang")
+        return messageMap
+    }
+
+    /**
+     * Publishes the messages of one or more languages in a single step.
+     * Languages that are not in [languages] keep their current messages.
+     *
+     * @param languages The messages by language, as built by [buildMessageMap].
+     */
+    fun publishMessages(languages: Map<String, Map<out MessageKey<*, *>, String>>) {
+        if (languages.isEmpty()) return
+
+        val rows = languages.mapValues { (_, messages) -> buildRow(messages) }
+
+        synchronized(publishLock) {
+            val rowsByLocale = rows.mapKeys { (lang, _) -> assignLocaleId(lang) }
+            val keys = synchronized(keysByOrdinal) {
+                languages.values.forEach { messages ->
+                    messages.keys.forEach { key ->
+                        val ordinal = ordinalOf(key)
+                        while (keysByOrdinal.size <= ordinal) keysByOrdinal.add(null)
+                        keysByOrdinal[ordinal] = key
+                    }
+                }
+                keysByOrdinal.toList()
+            }
+            table = table.with(rowsByLocale, localeNames, keys)
+            if (lastUsed.size < localeNames.size) lastUsed = lastUsed.copyOf(localeNames.size)
+            rowsByLocale.keys.forEach { lastUsed[it] = loadClock }
+        }
+        unavailableLanguages.removeAll(languages.keys)
+        Logger.logIfDebug("Message maps stored for languages: ${languages.keys.joinToString(", ")}")
     }
 
+    /**
+     * Gets the id of a language, for the lookups that take a locale id instead of a language code.
+     * Ids are assigned when a language is registered or first published and stay the same for the lifetime of this manager.
+     *
+     * @param lang The language code.
+     * @return The id, or -1 if the language is unknown.
+     */
+    fun localeId(lang: String): Int = localeIds[lang] ?: -1
+
+    /**
+     * Registers languages that the [languageLoader] can load, so they get locale ids and take part in
+     * fallback chains before they are loaded.
+     *
+     * @param languages The language codes.
+     */
+    fun registerLanguages(languages: Collection<String>) {
+        synchronized(publishLock) {
+            languages.forEach { assignLocaleId(it) }
+        }
+    }
+
+    /**
+     * Gets the languages a locale falls back through, most specific first.
+     *
+     * A client locale like `pt_BR` (or `pt-BR`, `pt_br`) resolves to `pt_BR`, then `pt`, then [fallbackLanguage].
+     * Not every language in the chain has to exist; lookups skip the ones that don't.
+     *
+     * @param locale The client locale.
+     * @return The languages to look messages up in, in order.
+     */
+    fun getFallbackChain(locale: String): List<String> {
+        val normalized = locale.replace('-', '_')
+        val parts = normalized.split('_')
+        val language = parts[0].lowercase()
+
+        val chain = linkedSetOf(locale, normalized)
+        if (parts.size > 1 && parts[1].isNotEmpty()) {
+            chain.add("${language}_${parts[1].uppercase()}")
+            chain.add("${language}_${parts[1].lowercase()}")
+        }
+        chain.add(language)
+        chain.add(fallbackLanguage)
+        return chain.filter { it.isNotEmpty() }
+    }
+
+    /**
+     * Resolves a client locale to its fallback chain, for the lookups that take a [ResolvedLocale].
+     *
+     * @param locale The client locale.
+     * @param cached A previous result to reuse if it is for the same locale and still up to date.
+     * @return The resolved locale.
+     */
+    fun resolveLocale(locale: String, cached: ResolvedLocale? = null): ResolvedLocale {
+        val version = chainVersion
+        if (cached != null && cached.version == version && cached.locale == locale) return cached
+        return ResolvedLocale(locale, localeChain(locale), version)
+    }
+
+    /**
+     * Lets the [languageLoader] try languages again that it couldn't load before, for example after their file was added.
+     *
+     * @param languages The language codes.
+     */
+    fun forgetUnavailableLanguages(languages: Collection<String>) {
+        unavailableLanguages.removeAll(languages.toSet())
+        clearLocaleChains()
+    }
+
+    /**
+     * Gets the languages that are currently loaded.
+     */
+    fun loadedLanguages(): Set<String> {
+        val table = table
+        return synchronized(publishLock) { table.loadedLocales().mapTo(LinkedHashSet()) { localeNames[it] } }
+    }
+
+    /**
+     * Unloads a language. Its messages are loaded again by the [languageLoader] the next time a lookup needs them.
+     *
+     * @param lang The language code.
+     */
+    fun unloadLanguage(lang: String) {
+        val id = localeIds[lang] ?: return
+        synchronized(publishLock) {
+            table = table.without(id)
+        }
+        Logger.logIfDebug("Unloaded language: $lang")
+    }
+
+    /**
+     * Gets the ordinal of a message key, its index in the per-language message arrays.
+     * Every key class gets an ordinal the first time it is asked for; it never changes afterward.
+     *
+     * @param key The message key.
+     * @return The ordinal.
+     */
+    fun ordinalOf(key: MessageKey<*, *>): Int = keyOrdinals.get(key.javaClass)
+
     // Private helper functions
+    /**
+     * Gets the fallback chain of a locale as the ids of the known languages, resolving it on first use.
+     * Resolving doesn't load anything; a language is loaded when a lookup falls through to it.
+     */
+    private fun localeChain(locale: String): IntArray {
+        localeChains[locale]?.let { return it }
+
+        val names = getFallbackChain(locale).filter { localeIds.containsKey(it) && it !in unavailableLanguages }
+        val chain = names.map { localeIds.getValue(it) }.distinct().toIntArray()
+        localeChains.putIfAbsent(locale, chain)
+        if (Core.getInstance().isDebug) {
+            Logger.logIfDebug("Resolved the fallback chain of '$locale': ${names.joinToString(" -> ")}")
+        }
+        return chain
+    }
+
+    /**
+     * Gets the id of a language, assigning a new one if it has none. Called under [publishLock].
+     */
+    private fun assignLocaleId(lang: String): Int {
+        return localeIds.getOrPut(lang) {
+            localeNames.add(lang)
+            clearLocaleChains()
+            localeNames.size - 1
+        }
+    }
+
+    private fun clearLocaleChains() {
+        localeChains.clear()
+        chainVersion++
+    }
+
+    private fun chainOf(locale: ResolvedLocale): IntArray {
+        return if (locale.version == chainVersion) locale.chain else localeChain(locale.locale)
+    }
+
+    /**
+     * Finds the first language in the fallback chain of [locale] that has a message for [key].
+     */
+    private inline fun <T> lookup(locale: String, key: MessageKey<*, *>, get: (MessageTable, Int, Int) -> T?): T? {
+        return lookup(localeChain(locale), key, get)
+    }
+
+    private inline fun <T> lookup(chain: IntArray, key: MessageKey<*, *>, get: (MessageTable, Int, Int) -> T?): T? {
+        val ordinal = ordinalOf(key)
+        val table = table
+        for (id in chain) {
+            if (!table.isLoaded(id)) {
+                // Fall through to the next language while this one loads
+                requestLoad(id)
+                continue
+            }
+            markUsed(id)
+            get(table, id, ordinal)?.let { return it }
+        }
+        return null
+    }
+
+    private fun component(table: MessageTable, localeId: Int, ordinal: Int, args: Array<out Any?>): C? {
+        table.component(localeId, ordinal)?.let { return share(it as C) }
+
+        val template = table.template(localeId, ordinal) ?: return null
+        return textComponentFactory(template.format(args))
+    }
+
+    /**
+     * Returns a cached component, copied if the platform's components are mutable.
+     */
+    private fun share(component: C): C {
+        val copy = copyComponent ?: return component
+        return copy(component)
+    }
+
+    private fun markUsed(id: Int) {
+        val lastUsed = lastUsed
+        val clock = loadClock
+        // Only written when it changes, so repeated lookups don't keep dirtying the cache line
+        if (id >= 0 && id < lastUsed.size && lastUsed[id] != clock) lastUsed[id] = clock
+    }
+
+    /**
+     * Schedules the [languageLoader] to load an unloaded language, unless it is already loading or doesn't exist.
+     */
+    private fun requestLoad(localeId: Int) {
+        val loader = languageLoader ?: return
+        val lang = localeNames.getOrNull(localeId) ?: return
+        if (lang in unavailableLanguages || !pendingLoads.add(lang)) return
+
+        val task = Runnable {
+            try {
+                loadLanguage(loader, lang)
+            } finally {
+                pendingLoads.remove(lang)
+            }
+        }
+        val executor = languageLoadExecutor
+        if (executor != null) executor(task) else task.run()
+    }
+
+    /**
+     * Loads a language with the [languageLoader] and unloads the least recently used ones above [maxLoadedLanguages].
+     */
+    private fun loadLanguage(loader: (String) -> Map<out MessageKey<*, *>, String>?, lang: String) {
+        // It may have been published since the load was requested
+        if (table.isLoaded(localeId(lang))) return
+
+        val messages = try {
+            loader(lang)
+        } catch (e: Exception) {
+            Logger.logIfDebug("Failed to load language '$lang': ${e.message}", LogLevel.WARN)
+            null
+        }
+        if (messages == null) {
+            // Drop it from the chains so lookups stop asking for it
+            unavailableLanguages.add(lang)
+            clearLocaleChains()
+            return
+        }
+
+        synchronized(publishLock) {
+            // It may have been published by someone else while the file was read
+            if (table.isLoaded(localeId(lang))) return
+            loadClock++
+            publishMessages(mapOf(lang to messages))
+        }
+        Logger.logIfDebug("Loaded language on demand: $lang")
+        evictLanguages(lang)
+    }
+
+    private fun evictLanguages(loaded: String) {
+        val max = maxLoadedLanguages
+        if (max <= 0) return
+
+        synchronized(publishLock) {
+            val candidates = table.loadedLocales()
+                .filter { localeNames[it] != loaded && localeNames[it] !in pinnedLanguages }
+                .sortedBy { lastUsed[it] }
+            val excess = table.loadedLocales().size - max
+            candidates.take(excess.coerceAtLeast(0)).forEach { id ->
+                table = table.without(id)
+                Logger.logIfDebug("Unloaded least recently used language: ${localeNames[id]}")
+            }
+        }
+    }
+
+    private fun buildRow(messages: Map<out MessageKey<*, *>, String>): MessageTable.Row {
+        val size = (messages.keys.maxOfOrNull { ordinalOf(it) } ?: -1) + 1
+        val texts = arrayOfNulls<String>(size)
+        val templates = arrayOfNulls<MessageTemplate>(size)
+        val components = arrayOfNulls<Any>(size)
+
+        for ((key, message) in messages) {
+            val ordinal = ordinalOf(key)
+            val template = MessageTemplate.compile(message)
+            texts[ordinal] = message
+            templates[ordinal] = template
+            if (template.isConstant) components[ordinal] = textComponentFactory(template.format(emptyArray()))
+        }
+        return MessageTable.Row(texts, templates, components)
+    }
+
+    private fun loadRegisteredMessageKeys(): Map<String, MessageKey<P, C>>? {
+        val packageName = Core.getInstance().packageName
+        val registries = ServiceLoader.load(MessageKeyRegistry::class.java, LanguageManager::class.java.classLoader)
+            .filter { it.javaClass.name.startsWith(packageName) }
+        if (registries.isEmpty()) {
+            Logger.logIfDebug("No generated MessageKey registry found in $packageName, scanning the classpath instead")
+            return null
+        }
+
+        val messageKeyMap: MutableMap<String, MessageKey<P, C>> = mutableMapOf()
+        registries.forEach { registry ->
+            registry.keys().forEach { (key, messageKey) ->
+                if (expectedMKType.isInstance(messageKey) && !messageKeyMap.containsKey(key)) {
+                    messageKeyMap[key] = messageKey as MessageKey<P, C>
+                }
+            }
+        }
+
+        Logger.logIfDebug("Loaded ${messageKeyMap.size} message keys from ${registries.size} generated registries")
+        return messageKeyMap
+    }
+
     private fun scanForMessageKeys(
         messageKeyMap: MutableMap<String, MessageKey<P, C>>
     ) {
@@ -250,10 +669,8 @@ open class LanguageManager<P : IPlayer<C>, C> private constructor(
      * @param args The arguments to format the message with.
      */
     fun getSysMessage(key: MessageKey<*, *>, vararg args: Any): String {
-        val lang = Locale.getDefault().language
-        val message = messages[lang]?.get(key)
-        val text = message?.let { String.format(it, *args) } ?: return key.rc()
-        return text
+        val lang = Locale.getDefault().toString()
+        return formatMessage(lang, key, args) ?: key.rc()
     }
 
     /**
@@ -264,9 +681,135 @@ open class LanguageManager<P : IPlayer<C>, C> private constructor(
      * @param args The arguments to format the message with.
      */
     fun getSysMessageByLangCode(key: MessageKey<*, *>, lang: String, vararg args: Any): String {
-        val message = messages[lang]?.get(key)
-        val text = message?.let { String.format(it, *args) } ?: return key.rc()
-        return text
+        return formatMessage(lang, key, args) ?: key.rc()
+    }
+
+    /**
+     * Get the compiled template of a message.
+     *
+     * @param lang The language code or client locale, looked up through its [getFallbackChain].
+     * @param key The message key.
+     * @return The template, or null if the language has no message for the key.
+     */
+    fun getTemplate(lang: String, key: MessageKey<*, *>): MessageTemplate? {
+        return lookup(lang, key) { table, id, ordinal -> table.template(id, ordinal) }
+    }
+
+    /**
+     * Get a message as a text component.
+     *
+     * Messages without arguments are rendered once when their language is loaded. On platforms with immutable
+     * components the same component is returned every time; otherwise a copy of it is returned.
+     *
+     * @param lang The language code or client locale, looked up through its [getFallbackChain].
+     * @param key The message key.
+     * @param args The arguments to format the message with.
+     * @return The component, or null if the language has no message for the key.
+     */
+    fun getComponent(lang: String, key: MessageKey<*, *>, args: Array<out Any?>): C? {
+        return lookup(lang, key) { table, id, ordinal -> component(table, id, ordinal, args) }
+    }
+
+    /**
+     * Get a message as a text component, for a resolved locale.
+     *
+     * @param locale The locale, from [resolveLocale].
+     * @see getComponent
+     */
+    fun getComponent(locale: ResolvedLocale, key: MessageKey<*, *>, args: Array<out Any?>): C? {
+        return lookup(chainOf(locale), key) { table, id, ordinal -> component(table, id, ordinal, args) }
+    }
+
+    /**
+     * Get a message as a text component, by locale id.
+     *
+     * @param localeId The id of the language, from [localeId].
+     * @see getComponent
+     */
+    fun getComponent(localeId: Int, key: MessageKey<*, *>, args: Array<out Any?>): C? {
+        val table = table
+        if (localeId >= 0 && !table.isLoaded(localeId)) {
+            requestLoad(localeId)
+            return null
+        }
+        markUsed(localeId)
+        return component(table, localeId, ordinalOf(key), args)
+    }
+
+    /**
+     * Get the raw text of a message.
+     *
+     * @param lang The language code or client locale, looked up through its [getFallbackChain].
+     * @param key The message key.
+     * @return The message, or null if the language has no message for the key.
+     */
+    fun getRawMessage(lang: String, key: MessageKey<*, *>): String? {
+        return lookup(lang, key) { table, id, ordinal -> table.text(id, ordinal) }
+    }
+
+    /**
+     * Get the raw text of a message, for a resolved locale.
+     *
+     * @param locale The locale, from [resolveLocale].
+     * @see getRawMessage
+     */
+    fun getRawMessage(locale: ResolvedLocale, key: MessageKey<*, *>): String? {
+        return lookup(chainOf(locale), key) { table, id, ordinal -> table.text(id, ordinal) }
+    }
+
+    /**
+     * Check whether a language has a message for a key.
+     *
+     * @param lang The language code or client locale, looked up through its [getFallbackChain].
+     * @param key The message key.
+     */
+    fun hasMessage(lang: String, key: MessageKey<*, *>): Boolean {
+        return getRawMessage(lang, key) != null
+    }
+
+    /**
+     * Check whether a resolved locale has a message for a key.
+     *
+     * @param locale The locale, from [resolveLocale].
+     * @see hasMessage
+     */
+    fun hasMessage(locale: ResolvedLocale, key: MessageKey<*, *>): Boolean {
+        return getRawMessage(locale, key) != null
+    }
+
+    /**
+     * Checks that a key is of this manager's [expectedMKType].
+     * The check is done once per key class and cached, so it costs no reflection on later calls.
+     *
+     * @param key The message key.
+     * @throws IllegalArgumentException If the key is of another type.
+     */
+    fun requireKeyType(key: MessageKey<*, *>) {
+        require(keyTypeChecks.get(key.javaClass)) { "Unexpected MessageKey type: ${key::class}. Expected: $expectedMKType" }
+    }
+
+    /**
+     * Get the component of a key's name, as returned by [MessageKey.c].
+     * It is created once per key class and, on platforms with mutable components, copied for every caller.
+     *
+     * @param key The message key.
+     * @return The component.
+     */
+    fun getKeyComponent(key: MessageKey<*, *>): C {
+        return share(keyComponents.getOrPut(key.javaClass) { textComponentFactory(key.javaClass.simpleName) as (C & Any) })
+    }
+
+    /**
+     * Format a message with its compiled template.
+     * The arguments are taken as an array so callers can pass their own varargs on without copying them.
+     *
+     * @param lang The language code or client locale, looked up through its [getFallbackChain].
+     * @param key The message key.
+     * @param args The arguments to format the message with.
+     * @return The formatted message, or null if the language has no message for the key.
+     */
+    fun formatMessage(lang: String, key: MessageKey<*, *>, args: Array<out Any?>): String? {
+        return getTemplate(lang, key)?.format(args)
     }
 
     private fun normalizeKey(key: String): String {
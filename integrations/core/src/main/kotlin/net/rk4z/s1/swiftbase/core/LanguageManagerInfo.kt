@@ -2,7 +2,11 @@ package net.rk4z.s1.swiftbase.core
 
 import kotlin.reflect.KClass
 
+/**
+ * @property copyComponent Copies a component, for platforms whose components are mutable (see [LanguageManager.initialize]).
+ */
 class LanguageManagerInfo<P : IPlayer<C>, C>(
     val textComponentFactory: (String) -> C,
     val expectedType: KClass<out MessageKey<P, C>>,
+    val copyComponent: ((C) -> C)? = null,
 )
\ No newline at end of file
@@ -3,7 +3,7 @@ package net.rk4z.s1.swiftbase.core
 @Suppress("unused", "DEPRECATION")
 interface MessageKey<P : IPlayer<C>, C> {
     fun c(): C {
-        return LanguageManager.get<P, C>().textComponentFactory(this.javaClass.simpleName)
+        return LanguageManager.get<P, C>().getKeyComponent(this)
     }
 
     fun rc(): String {
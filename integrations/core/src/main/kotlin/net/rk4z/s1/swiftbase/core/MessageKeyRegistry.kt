@@ -0,0 +1,27 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * Every [MessageKey] of a plugin, listed at build time.
+ *
+ * Implementations are generated by `swiftbase-processor` (a KSP processor) and registered as a service,
+ * so [LanguageManager] can map language files to keys without scanning the classpath or using kotlin-reflect.
+ * Plugins built without the processor still work; their keys are found by a classpath scan instead.
+ *
+ * ```kotlin
+ * plugins {
+ *     id("com.google.devtools.ksp") version "{ksp version}"
+ * }
+ *
+ * dependencies {
+ *     ksp("net.rk4z.s1:swiftbase-processor:{version}")
+ * }
+ * ```
+ */
+interface MessageKeyRegistry {
+    /**
+     * Gets every key of the plugin.
+     *
+     * @return The keys, by their normalized path (the lower-case class path without underscores, like `main.example`).
+     */
+    fun keys(): Map<String, MessageKey<*, *>>
+}
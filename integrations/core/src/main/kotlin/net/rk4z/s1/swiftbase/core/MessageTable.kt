@@ -0,0 +1,96 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * The loaded messages of every language in dense arrays, indexed by locale id and then by key ordinal
+ * (see [LanguageManager.localeId] and [LanguageManager.ordinalOf]).
+ *
+ * Alongside each message it keeps the compiled template and, for messages without arguments, the pre-rendered component.
+ * A table is never modified; publishing languages creates a new one that shares the rows of the other languages.
+ */
+internal class MessageTable private constructor(
+    private val locales: Array<String?>,
+    private val keys: Array<MessageKey<*, *>?>,
+    private val texts: Array<Array<String?>?>,
+    private val templates: Array<Array<MessageTemplate?>?>,
+    private val components: Array<Array<Any?>?>,
+) {
+    /**
+     * The messages of a single language, indexed by key ordinal.
+     */
+    class Row(
+        val texts: Array<String?>,
+        val templates: Array<MessageTemplate?>,
+        val components: Array<Any?>,
+    )
+
+    companion object {
+        val EMPTY = MessageTable(emptyArray(), emptyArray(), emptyArray(), emptyArray(), emptyArray())
+    }
+
+    fun text(locale: Int, ordinal: Int): String? = texts.getOrNull(locale)?.getOrNull(ordinal)
+
+    fun template(locale: Int, ordinal: Int): MessageTemplate? = templates.getOrNull(locale)?.getOrNull(ordinal)
+
+    fun component(locale: Int, ordinal: Int): Any? = components.getOrNull(locale)?.getOrNull(ordinal)
+
+    fun isLoaded(locale: Int): Boolean = texts.getOrNull(locale) != null
+
+    /**
+     * The ids of the locales that have rows.
+     */
+    fun loadedLocales(): List<Int> = texts.indices.filter { texts[it] != null }
+
+    /**
+     * Creates a table without the row of a locale. The locale keeps its id.
+     */
+    fun without(locale: Int): MessageTable {
+        if (!isLoaded(locale)) return this
+
+        val newTexts = texts.copyOf()
+        val newTemplates = templates.copyOf()
+        val newComponents = components.copyOf()
+        newTexts[locale] = null
+        newTemplates[locale] = null
+        newComponents[locale] = null
+        return MessageTable(locales, keys, newTexts, newTemplates, newComponents)
+    }
+
+    /**
+     * Creates a table with the rows of some locales replaced.
+     *
+     * @param rows The new rows by locale id.
+     * @param localeNames Every locale name by id.
+     * @param keysByOrdinal Every key by ordinal.
+     */
+    fun with(rows: Map<Int, Row>, localeNames: List<String>, keysByOrdinal: List<MessageKey<*, *>?>): MessageTable {
+        val size = maxOf(texts.size, (rows.keys.maxOrNull() ?: -1) + 1)
+        val newTexts = texts.copyOf(size)
+        val newTemplates = templates.copyOf(size)
+        val newComponents = components.copyOf(size)
+        for ((locale, row) in rows) {
+            newTexts[locale] = row.texts
+            newTemplates[locale] = row.templates
+            newComponents[locale] = row.components
+        }
+        return MessageTable(localeNames.toTypedArray(), keysByOrdinal.toTypedArray(), newTexts, newTemplates, newComponents)
+    }
+
+    /**
+     * The messages as nested maps by language and key, built on first use.
+     */
+    val messages: Map<String, Map<MessageKey<*, *>, String>> by lazy {
+        val result = LinkedHashMap<String, Map<MessageKey<*, *>, String>>()
+        texts.forEachIndexed { locale, row ->
+            val name = locales.getOrNull(locale)
+            if (row == null || name == null) return@forEachIndexed
+
+            val map = LinkedHashMap<MessageKey<*, *>, String>()
+            row.forEachIndexed { ordinal, text ->
+                val key = keys.getOrNull(ordinal)
+                if (text != null && key != null) map[key] = text
+            }
+            result[name] = map
+        }
+        result
+    }
+}
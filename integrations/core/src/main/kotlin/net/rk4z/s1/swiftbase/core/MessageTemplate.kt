@@ -0,0 +1,173 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.math.BigInteger
+import java.text.DecimalFormatSymbols
+import java.util.Formattable
+import java.util.Locale
+
+/**
+ * A message pattern compiled once into literal text and argument slots.
+ *
+ * [format] gives the same result as `String.format(pattern, *args)` but doesn't parse the pattern again
+ * or create a `Formatter`. Messages without placeholders are returned as-is.
+ *
+ * The specifiers `%s`, `%d`, `%1$s`, `%1$d`, `%%` and `%n` are compiled. A pattern using anything else
+ * (widths, precision, flags, other conversions) is passed to [String.format] unchanged, and so are arguments
+ * the compiled form can't render exactly (like a `%d` argument that isn't a whole number).
+ *
+ * @property pattern The pattern this template was compiled from.
+ */
+class MessageTemplate private constructor(
+    val pattern: String,
+    private val segments: Array<Segment>?,
+) {
+    private sealed interface Segment {
+        class Literal(val text: String) : Segment
+        class Argument(val index: Int, val integer: Boolean) : Segment
+    }
+
+    companion object {
+        private val lineSeparator = System.lineSeparator()
+        private val builder = ThreadLocal.withInitial { StringBuilder(128) }
+
+        /**
+         * Compiles a message pattern.
+         *
+         * @param pattern The pattern, in [String.format] syntax.
+         * @return The compiled template.
+         */
+        @JvmStatic
+        fun compile(pattern: String): MessageTemplate {
+            if (pattern.indexOf('%') < 0) return MessageTemplate(pattern, arrayOf(Segment.Literal(pattern)))
+            return MessageTemplate(pattern, parse(pattern))
+        }
+
+        /**
+         * Splits a pattern into segments, or returns null if it uses a specifier that isn't compiled.
+         */
+        private fun parse(pattern: String): Array<Segment>? {
+            val segments = ArrayList<Segment>()
+            val literal = StringBuilder()
+            var ordinary = 0
+            var i = 0
+
+            while (i < pattern.length) {
+                val c = pattern[i]
+                if (c != '%') {
+                    literal.append(c)
+                    i++
+                    continue
+                }
+
+                var j = i + 1
+                while (j < pattern.length && pattern[j].isDigit()) j++
+                val explicit = if (j > i + 1 && pattern.getOrNull(j) == '$') {
+                    pattern.substring(i + 1, j).toIntOrNull()?.takeIf { it > 0 }.also { j++ } ?: return null
+                } else {
+                    // Digits without '$' are a width, which isn't compiled
+                    if (j > i + 1) return null
+                    null
+                }
+
+                when (pattern.getOrNull(j)) {
+                    '%', 'n' -> {
+                        if (explicit != null) return null
+                        literal.append(if (pattern[j] == '%') "%" else lineSeparator)
+                    }
+                    's', 'd' -> {
+                        if (literal.isNotEmpty()) {
+                            segments.add(Segment.Literal(literal.toString()))
+                            literal.setLength(0)
+                        }
+                        val index = if (explicit != null) explicit - 1 else ordinary++
+                        segments.add(Segment.Argument(index, pattern[j] == 'd'))
+                    }
+                    else -> return null
+                }
+                i = j + 1
+            }
+
+            if (literal.isNotEmpty()) segments.add(Segment.Literal(literal.toString()))
+            return segments.toTypedArray()
+        }
+
+        private class DigitCheck(val locale: Locale, val ascii: Boolean)
+
+        @Volatile
+        private var digitCheck: DigitCheck? = null
+
+        /**
+         * Whether `%d` prints ASCII digits in the current default locale, like [Integer.toString] does.
+         */
+        private fun usesAsciiDigits(): Boolean {
+            val locale = Locale.getDefault(Locale.Category.FORMAT)
+            val check = digitCheck
+            if (check != null && check.locale == locale) return check.ascii
+
+            val ascii = DecimalFormatSymbols.getInstance(locale).zeroDigit == '0'
+            digitCheck = DigitCheck(locale, ascii)
+            return ascii
+        }
+    }
+
+    /**
+     * Whether the message has no arguments, so [format] always returns the same text.
+     */
+    val isConstant: Boolean = segments != null && segments.none { it is Segment.Argument }
+
+    private val constantText: String? = if (isConstant) segments!!.joinToString("") { (it as Segment.Literal).text } else null
+
+    /**
+     * Formats the message.
+     *
+     * @param args The arguments, like the varargs of [String.format].
+     * @return The formatted message.
+     * @throws java.util.IllegalFormatException Like [String.format], if the arguments don't match the pattern.
+     */
+    fun format(args: Array<out Any?>): String {
+        constantText?.let { return it }
+        val segments = segments ?: return String.format(pattern, *args)
+
+        val out = builder.get()
+        out.setLength(0)
+        for (segment in segments) {
+            when (segment) {
+                is Segment.Literal -> out.append(segment.text)
+                is Segment.Argument -> {
+                    if (segment.index >= args.size) return String.format(pattern, *args)
+                    if (!append(out, args[segment.index], segment.integer)) return String.format(pattern, *args)
+                }
+            }
+        }
+        return out.toString()
+    }
+
+    /**
+     * Appends a single argument the way [java.util.Formatter] would, or returns false if it can't be done exactly.
+     */
+    private fun append(out: StringBuilder, arg: Any?, integer: Boolean): Boolean {
+        if (!integer) {
+            when (arg) {
+                is Formattable -> return false
+                is String -> out.append(arg)
+                else -> out.append(arg.toString())
+            }
+            return true
+        }
+
+        return when (arg) {
+            null -> {
+                out.append("null")
+                true
+            }
+            is Int, is Long, is Short, is Byte, is BigInteger -> {
+                if (!usesAsciiDigits()) return false
+                out.append(arg.toString())
+                true
+            }
+            else -> false
+        }
+    }
+
+    override fun toString(): String = pattern
+}
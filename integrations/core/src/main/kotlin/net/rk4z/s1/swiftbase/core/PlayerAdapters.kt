@@ -0,0 +1,94 @@
+package net.rk4z.s1.swiftbase.core
+
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * The [IPlayer] adapters of the online players by UUID, so every player keeps a single adapter
+ * (and its cached locale) instead of getting a new one every time it is adapted.
+ *
+ * Adapters are expected to hold their platform player weakly, so an entry that is never removed doesn't keep
+ * the player alive. The platforms remove entries after a player quits (see [removeLater]).
+ *
+ * @param H The platform's player type.
+ * @param A The adapter type.
+ * @param create Creates the adapter of a player.
+ * @param handleOf Gets the player an adapter belongs to, or null if it has been collected.
+ */
+class PlayerAdapters<H : Any, A : IPlayer<*>>(
+    private val create: (H) -> A,
+    private val handleOf: (A) -> H?,
+) {
+    private val adapters = ConcurrentHashMap<UUID, A>()
+
+    /**
+     * Gets the adapter of a player, creating it on first use.
+     * A player that reconnected has a new platform player object, so it gets a new adapter.
+     *
+     * @param uuid The player's UUID.
+     * @param player The platform player.
+     * @return The adapter.
+     */
+    fun get(uuid: UUID, player: H): A {
+        val adapter = adapters[uuid]
+        if (adapter != null && handleOf(adapter) === player) return adapter
+
+        val created = create(player)
+        adapters[uuid] = created
+        return created
+    }
+
+    /**
+     * Gets the adapter of a player if it has one.
+     *
+     * @param uuid The player's UUID.
+     */
+    fun getIfPresent(uuid: UUID): A? = adapters[uuid]
+
+    /**
+     * Removes the adapter of a player, for example when it quits.
+     *
+     * @param uuid The player's UUID.
+     */
+    fun remove(uuid: UUID) {
+        adapters.remove(uuid)
+    }
+
+    /**
+     * Removes the adapter of a player that quit, after every handler of the quit event has run.
+     * Removing it right away would let a handler that runs later adapt the player again and leave an adapter behind
+     * that is never removed. If the player has reconnected by then, its new adapter is kept.
+     *
+     * @param uuid The player's UUID.
+     * @param player The platform player that quit.
+     * @param schedule Runs the removal once on the main thread, after the current event (usually on the next tick).
+     */
+    fun removeLater(uuid: UUID, player: H, schedule: (Runnable) -> Unit) {
+        try {
+            schedule(Runnable { remove(uuid, player) })
+        } catch (_: Exception) {
+            // The executor is shut down, so no other handler will run anymore
+            remove(uuid, player)
+        }
+    }
+
+    private fun remove(uuid: UUID, player: H) {
+        adapters.computeIfPresent(uuid) { _, adapter ->
+            val handle = handleOf(adapter)
+            adapter.takeIf { handle != null && handle !== player }
+        }
+    }
+
+    /**
+     * Removes every adapter.
+     */
+    fun clear() {
+        adapters.clear()
+    }
+
+    /**
+     * Gets the number of players with an adapter.
+     */
+    val size: Int
+        get() = adapters.size
+}
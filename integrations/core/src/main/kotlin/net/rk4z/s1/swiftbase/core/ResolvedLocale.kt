@@ -0,0 +1,18 @@
+package net.rk4z.s1.swiftbase.core
+
+/**
+ * A client locale resolved to the languages of its fallback chain.
+ *
+ * Get one with [LanguageManager.resolveLocale] and keep it for as long as the player's locale doesn't change.
+ * Lookups with it go straight to the languages of the chain without resolving the locale string again.
+ * It stays valid when languages are published later; a lookup with an outdated one resolves the chain again.
+ *
+ * @property locale The client locale this was resolved from.
+ */
+class ResolvedLocale internal constructor(
+    val locale: String,
+    internal val chain: IntArray,
+    internal val version: Int,
+) {
+    override fun toString(): String = locale
+}
@@ -28,6 +28,7 @@ open class ClientModEntry(
     val languageManagerInfo: LanguageManagerInfo<FabricPlayer, Text>? = LanguageManagerInfo<FabricPlayer, Text>(
         textComponentFactory = fabricTextComponent,
         expectedType = FabricMessageKey::class,
+        copyComponent = fabricTextComponentCopy,
     ),
     val availableLang: List<String>? = null,
     val langDir: String? = null,
@@ -50,6 +51,9 @@ open class ClientModEntry(
         }
 
         val fabricTextComponent = { text: String -> Text.of(text) }
+
+        // Fabric's texts are mutable, so cached messages are copied before they are handed out
+        val fabricTextComponentCopy: (Text) -> Text = { text -> text.copy() }
     }
 
     val loader: FabricLoader = FabricLoader.getInstance()
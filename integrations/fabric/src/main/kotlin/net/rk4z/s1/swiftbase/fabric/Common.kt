@@ -1,5 +1,6 @@
 package net.rk4z.s1.swiftbase.fabric
 
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents
 import net.minecraft.text.Text
 import net.rk4z.s1.swiftbase.core.CB
 import net.rk4z.s1.swiftbase.core.Core
@@ -52,7 +53,16 @@ object Common {
 
         onDirectoriesAndFilesInitialized()
 
+        ServerPlayConnectionEvents.DISCONNECT.register { handler, _ ->
+            // At the end of this tick, after the other disconnect handlers
+            FabricPlayer.adapters.removeLater(handler.player.uuid, handler.player) { ServerTickQueue.submit(it) }
+        }
+
         Runtime.getRuntime().addShutdownHook(Thread {
+            CB.stopConfigWatcher()
+            CB.stopLanguageWatcher()
+            FabricPlayer.adapters.clear()
+            CB.flushConfig()
             CB.executor.shutdown()
         })
 
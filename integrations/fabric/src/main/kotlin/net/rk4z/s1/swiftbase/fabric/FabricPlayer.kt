@@ -7,11 +7,36 @@ import net.minecraft.text.Text
 import net.rk4z.s1.swiftbase.core.IPlayer
 import net.rk4z.s1.swiftbase.core.LanguageManager
 import net.rk4z.s1.swiftbase.core.MessageKey
+import net.rk4z.s1.swiftbase.core.PlayerAdapters
+import net.rk4z.s1.swiftbase.core.ResolvedLocale
+import java.lang.ref.WeakReference
 import kotlin.collections.get
-import kotlin.reflect.full.isSubclassOf
 
 @Suppress("DEPRECATION")
-class FabricPlayer(internal val player: ServerPlayerEntity) : IPlayer<Text> {
+class FabricPlayer(player: ServerPlayerEntity) : IPlayer<Text> {
+    companion object {
+        /**
+         * The adapters of the online players, used by [adapt].
+         * Adapters are removed when players disconnect.
+         */
+        @JvmStatic
+        val adapters = PlayerAdapters<ServerPlayerEntity, FabricPlayer>(::FabricPlayer) { it.playerRef.get() }
+    }
+
+    private class CachedLanguage(val locale: String, val language: String)
+
+    // Held weakly so an adapter that outlives its player doesn't keep the player alive
+    private val playerRef = WeakReference(player)
+
+    internal val player: ServerPlayerEntity
+        get() = playerRef.get() ?: throw IllegalStateException("The player of this adapter is no longer available.")
+
+    // Both are checked against the current client locale, which is a new string whenever the client sends new options
+    @Volatile
+    private var language: CachedLanguage? = null
+    @Volatile
+    private var resolvedLocale: ResolvedLocale? = null
+
     private val languageManager: LanguageManager<FabricPlayer, Text>
         get() {
             //この関数が呼び出される時点でLanguageManagerが初期化されていない場合はエラーを出す
@@ -23,43 +48,47 @@ class FabricPlayer(internal val player: ServerPlayerEntity) : IPlayer<Text> {
         }
 
     override fun getLanguage(): String {
+        val locale = getLocale()
+        val cached = language
+        if (cached != null && cached.locale === locale) return cached.language
+
         // en_US -> en
-        return player.clientOptions.comp_1951.split("_")[0]
+        return locale.split("_")[0].also { language = CachedLanguage(locale, it) }
+    }
+
+    override fun getLocale(): String {
+        return player.clientOptions.comp_1951
+    }
+
+    private fun resolvedLocale(languageManager: LanguageManager<FabricPlayer, Text>): ResolvedLocale {
+        return languageManager.resolveLocale(getLocale(), resolvedLocale).also { resolvedLocale = it }
     }
 
     override fun getMessage(key: MessageKey<*, *>, vararg args: Any): Text {
-        val messages = languageManager.messages
-        val expectedMKType = languageManager.expectedMKType
+        val languageManager = languageManager
         val textComponentFactory = languageManager.textComponentFactory
 
-        require(key::class.isSubclassOf(expectedMKType)) { "Unexpected MessageKey type: ${key::class}. Expected: $expectedMKType" }
-        val lang = this.getLanguage()
-        val message = messages[lang]?.get(key)
-        val text = message?.let { String.format(it, *args) } ?: key.rc()
-        return textComponentFactory(text)
+        languageManager.requireKeyType(key)
+        return languageManager.getComponent(resolvedLocale(languageManager), key, args) ?: textComponentFactory(key.rc())
     }
 
     override fun getRawMessage(key: MessageKey<*, *>): String {
-        val messages = languageManager.messages
-        val expectedMKType = languageManager.expectedMKType
+        val languageManager = languageManager
 
-        require(key::class.isSubclassOf(expectedMKType)) { "Unexpected MessageKey type: ${key::class}. Expected: $expectedMKType" }
-        val lang = this.getLanguage()
-        return messages[lang]?.get(key) ?: key.rc()
+        languageManager.requireKeyType(key)
+        return languageManager.getRawMessage(resolvedLocale(languageManager), key) ?: key.rc()
     }
 
     override fun hasMessage(key: MessageKey<*, *>): Boolean {
-        val messages = languageManager.messages
-        val expectedMKType = languageManager.expectedMKType
+        val languageManager = languageManager
 
-        require(key::class.isSubclassOf(expectedMKType)) { "Unexpected MessageKey type: ${key::class}. Expected: $expectedMKType" }
-        val lang = this.getLanguage()
-        return messages[lang]?.containsKey(key) ?: false
+        languageManager.requireKeyType(key)
+        return languageManager.hasMessage(resolvedLocale(languageManager), key)
     }
 }
 
 fun ServerPlayerEntity.adapt(): FabricPlayer {
-    return FabricPlayer(this)
+    return FabricPlayer.adapters.get(uuid, this)
 }
 
 fun FabricPlayer.getAPlayer(): ServerPlayerEntity {
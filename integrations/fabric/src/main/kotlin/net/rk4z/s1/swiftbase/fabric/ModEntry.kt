@@ -28,6 +28,7 @@ open class ModEntry(
     val languageManagerInfo: LanguageManagerInfo<FabricPlayer, Text>? = LanguageManagerInfo<FabricPlayer, Text>(
         textComponentFactory = fabricTextComponent,
         expectedType = FabricMessageKey::class,
+        copyComponent = fabricTextComponentCopy,
     ),
     val availableLang: List<String>? = null,
     val langDir: String? = null,
@@ -51,6 +52,9 @@ open class ModEntry(
 
         val fabricTextComponent = { text: String -> Text.of(text) }
 
+        // Fabric's texts are mutable, so cached messages are copied before they are handed out
+        val fabricTextComponentCopy: (Text) -> Text = { text -> text.copy() }
+
         fun isInitialized(): Boolean {
             return this::instance.isInitialized
         }
@@ -2,7 +2,6 @@ package net.rk4z.s1.swiftbase.fabric
 
 import net.fabricmc.api.EnvType
 import net.fabricmc.loader.api.FabricLoader
-import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents
 import net.rk4z.s1.swiftbase.core.S0Executor
 import java.util.concurrent.*
 import java.util.concurrent.atomic.AtomicBoolean
@@ -17,7 +16,7 @@ class S2Executor : S0Executor {
         ModEntry.get()?.let { sc ->
             sc.client?.let {
                 // クライアント環境であれば、taskを実行
-                execute(task)
+                it.execute(task)
             } ?: run {
                 // この関数呼び出し時に、既にクライアント側であることは確定しているが、一応エルビス演算子を使う
                 ClientModEntry.get()?.client?.execute(task)
@@ -26,9 +25,8 @@ class S2Executor : S0Executor {
     }
 
     private fun runOnServerMainThread(task: Runnable) {
-        ServerTickEvents.END_SERVER_TICK.register(ServerTickEvents.EndTick {
-            task.run()
-        })
+        // ティックリスナーは登録解除できないので、1つのリスナーが処理するキューに一度だけ積む
+        ServerTickQueue.submit(task)
     }
 
     override fun <T> execute(task: () -> T): T? {
@@ -0,0 +1,35 @@
+package net.rk4z.s1.swiftbase.fabric
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Runs tasks once on the server thread, at the end of the current tick.
+ *
+ * Fabric can't unregister tick listeners, so a single `END_SERVER_TICK` listener is registered on first use
+ * and drains the queue. A task is dropped from the queue as soon as it has run.
+ */
+internal object ServerTickQueue {
+    private val tasks = ConcurrentLinkedQueue<Runnable>()
+    private val registered = AtomicBoolean(false)
+
+    fun submit(task: Runnable) {
+        tasks.add(task)
+        if (registered.compareAndSet(false, true)) {
+            ServerTickEvents.END_SERVER_TICK.register(ServerTickEvents.EndTick { drain() })
+        }
+    }
+
+    private fun drain() {
+        // Only the tasks queued so far; the ones they queue run on the next tick
+        repeat(tasks.size) {
+            val task = tasks.poll() ?: return
+            try {
+                task.run()
+            } catch (ex: Exception) {
+                ex.printStackTrace()
+            }
+        }
+    }
+}
@@ -6,12 +6,38 @@ import net.kyori.adventure.text.TextComponent
 import net.rk4z.s1.swiftbase.core.IPlayer
 import net.rk4z.s1.swiftbase.core.LanguageManager
 import net.rk4z.s1.swiftbase.core.MessageKey
+import net.rk4z.s1.swiftbase.core.PlayerAdapters
+import net.rk4z.s1.swiftbase.core.ResolvedLocale
 import org.bukkit.entity.Player
+import java.lang.ref.WeakReference
+import java.util.Locale
 import kotlin.collections.get
-import kotlin.reflect.full.isSubclassOf
 
 @Suppress("DEPRECATION")
-class PaperPlayer(internal val player: Player) : IPlayer<TextComponent> {
+class PaperPlayer(player: Player) : IPlayer<TextComponent> {
+    companion object {
+        /**
+         * The adapters of the online players, used by [adapt].
+         * [PluginEntry] updates their locales and removes them when players quit.
+         */
+        @JvmStatic
+        val adapters = PlayerAdapters<Player, PaperPlayer>(::PaperPlayer) { it.playerRef.get() }
+    }
+
+    // Held weakly so an adapter that outlives its player doesn't keep the player alive
+    private val playerRef = WeakReference(player)
+
+    internal val player: Player
+        get() = playerRef.get() ?: throw IllegalStateException("The player of this adapter is no longer available.")
+
+    // The player's locale, kept until it changes
+    @Volatile
+    private var locale: Locale? = null
+    @Volatile
+    private var localeString: String? = null
+    @Volatile
+    private var resolvedLocale: ResolvedLocale? = null
+
     private val languageManager: LanguageManager<PaperPlayer, TextComponent>
         get() {
             //この関数が呼び出される時点でLanguageManagerが初期化されていない場合はエラーを出す
@@ -23,42 +49,58 @@ class PaperPlayer(internal val player: Player) : IPlayer<TextComponent> {
         }
 
     override fun getLanguage(): String {
-        return player.locale().language ?: "en"
+        return currentLocale().language ?: "en"
+    }
+
+    override fun getLocale(): String {
+        localeString?.let { return it }
+        return currentLocale().toString().also { localeString = it }
+    }
+
+    /**
+     * Updates the cached locale, called when the client changes its language.
+     *
+     * @param locale The new locale, or null to read it from the player again.
+     */
+    fun updateLocale(locale: Locale?) {
+        this.locale = locale
+        this.localeString = null
+    }
+
+    private fun currentLocale(): Locale {
+        locale?.let { return it }
+        return player.locale().also { locale = it }
+    }
+
+    private fun resolvedLocale(languageManager: LanguageManager<PaperPlayer, TextComponent>): ResolvedLocale {
+        return languageManager.resolveLocale(getLocale(), resolvedLocale).also { resolvedLocale = it }
     }
 
     override fun getMessage(key: MessageKey<*, *>, vararg args: Any): TextComponent {
-        val messages = languageManager.messages
-        val expectedMKType = languageManager.expectedMKType
+        val languageManager = languageManager
         val textComponentFactory = languageManager.textComponentFactory
 
-        require(key::class.isSubclassOf(expectedMKType)) { "Unexpected MessageKey type: ${key::class}. Expected: $expectedMKType" }
-        val lang = this.getLanguage()
-        val message = messages[lang]?.get(key)
-        val text = message?.let { String.format(it, *args) } ?: key.rc()
-        return textComponentFactory(text)
+        languageManager.requireKeyType(key)
+        return languageManager.getComponent(resolvedLocale(languageManager), key, args) ?: textComponentFactory(key.rc())
     }
 
     override fun getRawMessage(key: MessageKey<*, *>): String {
-        val messages = languageManager.messages
-        val expectedMKType = languageManager.expectedMKType
+        val languageManager = languageManager
 
-        require(key::class.isSubclassOf(expectedMKType)) { "Unexpected MessageKey type: ${key::class}. Expected: $expectedMKType" }
-        val lang = this.getLanguage()
-        return messages[lang]?.get(key) ?: key.rc()
+        languageManager.requireKeyType(key)
+        return languageManager.getRawMessage(resolvedLocale(languageManager), key) ?: key.rc()
     }
 
     override fun hasMessage(key: MessageKey<*, *>): Boolean {
-        val messages = languageManager.messages
-        val expectedMKType = languageManager.expectedMKType
+        val languageManager = languageManager
 
-        require(key::class.isSubclassOf(expectedMKType)) { "Unexpected MessageKey type: ${key::class}. Expected: $expectedMKType" }
-        val lang = this.getLanguage()
-        return messages[lang]?.containsKey(key) ?: false
+        languageManager.requireKeyType(key)
+        return languageManager.hasMessage(resolvedLocale(languageManager), key)
     }
 }
 
 fun Player.adapt(): PaperPlayer {
-    return PaperPlayer(this)
+    return PaperPlayer.adapters.get(uniqueId, this)
 }
 
 fun PaperPlayer.getAPlayer(): Player {
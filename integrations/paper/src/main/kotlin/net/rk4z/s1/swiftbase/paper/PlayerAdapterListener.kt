@@ -0,0 +1,25 @@
+package net.rk4z.s1.swiftbase.paper
+
+import net.rk4z.s1.swiftbase.core.CB
+import org.bukkit.event.EventHandler
+import org.bukkit.event.EventPriority
+import org.bukkit.event.Listener
+import org.bukkit.event.player.PlayerLocaleChangeEvent
+import org.bukkit.event.player.PlayerQuitEvent
+
+/**
+ * Keeps [PaperPlayer.adapters] up to date: updates the cached locale when a client changes its language
+ * and removes the adapter once a player has quit.
+ */
+internal object PlayerAdapterListener : Listener {
+    @EventHandler(priority = EventPriority.MONITOR)
+    fun onLocaleChange(event: PlayerLocaleChangeEvent) {
+        PaperPlayer.adapters.getIfPresent(event.player.uniqueId)?.updateLocale(event.locale())
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    fun onQuit(event: PlayerQuitEvent) {
+        // One tick later, so plugins that handle the quit after this listener don't leave an adapter behind
+        PaperPlayer.adapters.removeLater(event.player.uniqueId, event.player) { CB.executor.executeLater(it, 1) }
+    }
+}
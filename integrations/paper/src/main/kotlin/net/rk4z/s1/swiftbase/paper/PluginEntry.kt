@@ -86,6 +86,8 @@ open class PluginEntry(
     override fun onEnable() {
         onEnablePre()
 
+        server.pluginManager.registerEvents(PlayerAdapterListener, this)
+
         if (serviceId != null) {
             metrics = Metrics(this, serviceId)
         } else {
@@ -102,6 +104,10 @@ open class PluginEntry(
     override fun onDisable() {
         onDisablePre()
 
+        CB.stopConfigWatcher()
+        CB.stopLanguageWatcher()
+        PaperPlayer.adapters.clear()
+        CB.flushConfig()
         CB.executor.shutdown()
 
         onDisablePost()
@@ -0,0 +1,75 @@
+import cl.franciscosolis.sonatypecentralupload.SonatypeCentralUploadTask
+import java.io.FileInputStream
+import java.util.*
+
+version = "1.0.0"
+
+dependencies {
+    implementation("com.google.devtools.ksp:symbol-processing-api:2.0.21-1.0.28")
+}
+
+tasks.create<Jar>("jout") {
+    duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+    from(sourceSets.main.get().output)
+}
+
+val localProperties = Properties().apply {
+    load(FileInputStream(rootProject.file("local.properties")))
+}
+
+publishing {
+    publications {
+        // KSPプロセッサ用のパッケージ
+        create<MavenPublication>("processor") {
+            groupId = project.group.toString()
+            artifactId = "${rootProject.name}-processor"
+            version = project.version.toString()
+
+            from(components["java"])
+
+            pom {
+                name.set("SwiftBase Processor")
+                description.set("Generates the MessageKey registry of SwiftBase plugins at build time.")
+                url.set("https://github.com/SwiftStorm-Studio/SwiftBase")
+                licenses {
+                    license {
+                        name.set("MIT")
+                        url.set("https://opensource.org/license/mit")
+                    }
+                }
+                developers {
+                    developer {
+                        id.set("lars")
+                        name.set("Lars")
+                        email.set("main@rk4z.net")
+                    }
+                }
+                scm {
+                    connection.set("scm:git:git://github.com/SwiftStorm-Studio/SwiftBase.git")
+                    developerConnection.set("scm:git:ssh://github.com/SwiftStorm-Studio/SwiftBase.git")
+                    url.set("https://github.com/SwiftStorm-Studio/SwiftBase")
+                }
+            }
+        }
+    }
+}
+
+tasks.named<SonatypeCentralUploadTask>("sonatypeCentralUpload") {
+    dependsOn("clean", "jar", "sourcesJar", "javadocJar", "generatePomFileForProcessorPublication")
+
+    username = localProperties.getProperty("cu")
+    password = localProperties.getProperty("cp")
+
+    archives = files(
+        tasks.named("jar"),
+        tasks.named("sourcesJar"),
+        tasks.named("javadocJar"),
+    )
+
+    pom = file(
+        tasks.named("generatePomFileForProcessorPublication").get().outputs.files.single()
+    )
+
+    signingKey = localProperties.getProperty("signing.key")
+    signingKeyPassphrase = localProperties.getProperty("signing.passphrase")
+}
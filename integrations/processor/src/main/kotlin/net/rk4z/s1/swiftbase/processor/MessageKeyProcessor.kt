@@ -0,0 +1,158 @@
+package net.rk4z.s1.swiftbase.processor
+
+import com.google.devtools.ksp.getAllSuperTypes
+import com.google.devtools.ksp.isAbstract
+import com.google.devtools.ksp.isPrivate
+import com.google.devtools.ksp.processing.CodeGenerator
+import com.google.devtools.ksp.processing.Dependencies
+import com.google.devtools.ksp.processing.KSPLogger
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment
+import com.google.devtools.ksp.processing.SymbolProcessorProvider
+import com.google.devtools.ksp.symbol.ClassKind
+import com.google.devtools.ksp.symbol.KSAnnotated
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSDeclaration
+
+class MessageKeyProcessorProvider : SymbolProcessorProvider {
+    override fun create(environment: SymbolProcessorEnvironment): SymbolProcessor {
+        return MessageKeyProcessor(environment.codeGenerator, environment.logger, environment.options)
+    }
+}
+
+/**
+ * Generates a `MessageKeyRegistry` listing every `MessageKey` of the module being compiled,
+ * and registers it as a service so SwiftBase's `LanguageManager` can load it without scanning the classpath.
+ *
+ * Keys are registered under the same normalized paths the runtime scan uses: every class implementing `MessageKey`
+ * is registered under its own name, and its nested keys under the path of the classes they are nested in.
+ * Objects are referenced directly and concrete classes with a no-argument constructor are instantiated.
+ *
+ * Options:
+ * - `swiftbase.registryPackage`: the package of the generated registry. Defaults to the package all keys share.
+ *   It has to be inside the `packageName` given to SwiftBase's `Core`, or the registry is ignored.
+ */
+class MessageKeyProcessor(
+    private val codeGenerator: CodeGenerator,
+    private val logger: KSPLogger,
+    private val options: Map<String, String>,
+) : SymbolProcessor {
+    companion object {
+        private const val MESSAGE_KEY = "net.rk4z.s1.swiftbase.core.MessageKey"
+        private const val REGISTRY = "net.rk4z.s1.swiftbase.core.MessageKeyRegistry"
+        private const val REGISTRY_NAME = "SwiftBaseMessageKeys"
+    }
+
+    private var generated = false
+    private val skipped = HashSet<String>()
+
+    override fun process(resolver: Resolver): List<KSAnnotated> {
+        // Generated code never declares keys, so a single round sees all of them
+        if (generated) return emptyList()
+        generated = true
+
+        val files = resolver.getAllFiles().toList()
+        val classes = files.asSequence()
+            .flatMap { it.declarations }
+            .flatMap { allClasses(it) }
+            .filter { isMessageKey(it) }
+            .toList()
+        if (classes.isEmpty()) return emptyList()
+
+        val keys = LinkedHashMap<String, String>()
+        classes.forEach { mapKeys(it, "", keys) }
+        if (keys.isEmpty()) return emptyList()
+
+        val packageName = options["swiftbase.registryPackage"] ?: commonPackage(classes)
+        val dependencies = Dependencies(true, *files.toTypedArray())
+
+        codeGenerator.createNewFile(dependencies, packageName, REGISTRY_NAME).bufferedWriter().use { out ->
+            out.write(render(packageName, keys))
+        }
+        codeGenerator.createNewFileByPath(dependencies, "META-INF/services/$REGISTRY", "").bufferedWriter().use { out ->
+            out.write(if (packageName.isEmpty()) REGISTRY_NAME else "$packageName.$REGISTRY_NAME")
+            out.newLine()
+        }
+
+        logger.info("Generated a MessageKey registry with ${keys.size} keys")
+        return emptyList()
+    }
+
+    private fun allClasses(declaration: KSDeclaration): Sequence<KSClassDeclaration> {
+        if (declaration !is KSClassDeclaration) return emptySequence()
+        return sequenceOf(declaration) + declaration.declarations.flatMap { allClasses(it) }
+    }
+
+    private fun isMessageKey(declaration: KSClassDeclaration): Boolean {
+        return declaration.qualifiedName?.asString() == MESSAGE_KEY ||
+            declaration.getAllSuperTypes().any { it.declaration.qualifiedName?.asString() == MESSAGE_KEY }
+    }
+
+    /**
+     * Registers a key class and its nested key classes, like `LanguageManager.mapMessageKeys` does at runtime.
+     * Keys registered earlier win.
+     */
+    private fun mapKeys(declaration: KSClassDeclaration, currentPath: String, keys: MutableMap<String, String>) {
+        val name = declaration.simpleName.asString()
+        val fullPath = if (currentPath.isEmpty()) name else "$currentPath.$name"
+        val key = normalizeKey(fullPath)
+
+        val instance = instanceExpression(declaration)
+        if (instance != null && !keys.containsKey(key)) keys[key] = instance
+
+        declaration.declarations
+            .filterIsInstance<KSClassDeclaration>()
+            .filter { isMessageKey(it) }
+            .forEach { mapKeys(it, fullPath, keys) }
+    }
+
+    /**
+     * Gets the code that gets the instance of a key class, or null if it can't be referenced from generated code.
+     */
+    private fun instanceExpression(declaration: KSClassDeclaration): String? {
+        val qualifiedName = declaration.qualifiedName?.asString() ?: return null
+        if (generateSequence(declaration) { it.parentDeclaration as? KSClassDeclaration }.any { it.isPrivate() }) {
+            if (skipped.add(qualifiedName)) logger.warn("Skipping private MessageKey $qualifiedName", declaration)
+            return null
+        }
+
+        return when {
+            declaration.classKind == ClassKind.OBJECT -> qualifiedName
+            declaration.classKind == ClassKind.CLASS && !declaration.isAbstract() &&
+                declaration.primaryConstructor?.parameters?.all { it.hasDefault } != false -> "$qualifiedName()"
+            else -> null
+        }
+    }
+
+    private fun commonPackage(classes: List<KSClassDeclaration>): String {
+        val packages = classes.map { it.packageName.asString().split(".") }
+        var common = packages.first()
+        for (parts in packages) {
+            common = common.zip(parts).takeWhile { (a, b) -> a == b }.map { it.first }
+        }
+        return common.joinToString(".")
+    }
+
+    private fun normalizeKey(key: String): String {
+        return key.lowercase().replace("_", "")
+    }
+
+    private fun render(packageName: String, keys: Map<String, String>): String {
+        return buildString {
+            appendLine("// Generated by swiftbase-processor. Do not edit.")
+            if (packageName.isNotEmpty()) {
+                appendLine("package $packageName")
+                appendLine()
+            }
+            appendLine("import net.rk4z.s1.swiftbase.core.MessageKey")
+            appendLine("import net.rk4z.s1.swiftbase.core.MessageKeyRegistry")
+            appendLine()
+            appendLine("class $REGISTRY_NAME : MessageKeyRegistry {")
+            appendLine("    override fun keys(): Map<String, MessageKey<*, *>> = linkedMapOf<String, MessageKey<*, *>>(")
+            keys.forEach { (key, instance) -> appendLine("        \"$key\" to $instance,") }
+            appendLine("    )")
+            appendLine("}")
+        }
+    }
+}
@@ -23,4 +23,7 @@ include(":integrations:fabric")
 project(":integrations:fabric").name = "swiftbase-fabric"
 
 include(":integrations:paper")
-project(":integrations:paper").name = "swiftbase-paper"
\ No newline at end of file
+project(":integrations:paper").name = "swiftbase-paper"
+
+include(":integrations:processor")
+project(":integrations:processor").name = "swiftbase-processor"